@@ -0,0 +1,22 @@
+package benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs all benchmarks with the GC profiler, so every result also reports the allocated bytes per operation.
+ * The first argument is an optional regex to select benchmarks, e.g. "MCTSBenchmark".
+ */
+public class BenchmarkRunner {
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(args.length > 0 ? args[0] : BenchmarkRunner.class.getPackageName() + ".*")
+				.addProfiler(GCProfiler.class)
+				.jvmArgsAppend("-XX:+UseParallelGC")
+				.build();
+		new Runner(options).run();
+	}
+}
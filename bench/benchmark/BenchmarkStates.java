@@ -0,0 +1,51 @@
+package benchmark;
+
+import core.EngineContext;
+import core.GameState;
+import core.Utils;
+import core.placing.Placer;
+import core.playing.random.RandomAI;
+
+/**
+ * Reproducible GameStates for the benchmarks
+ */
+public class BenchmarkStates {
+	/**
+	 * Seed of the {@link EngineContext} every benchmark thread uses
+	 */
+	public static final long SEED = 42;
+	/**
+	 * Number of random plies from the prebuilt start position to {@link #midgame()}
+	 */
+	public static final int MIDGAME_PLIES = 40;
+
+	/**
+	 * Installs a seeded {@link EngineContext} on the calling thread
+	 */
+	public static void seedContext() {
+		EngineContext.set(new EngineContext(SEED));
+	}
+
+	/**
+	 * @return the prebuilt start position
+	 */
+	public static GameState start() {
+		return new GameState(
+				Placer.placePiecesWith(true, Placer.Type.PREBUILT),
+				Placer.placePiecesWith(false, Placer.Type.PREBUILT));
+	}
+
+	/**
+	 * Plays {@link #MIDGAME_PLIES} seeded random plies from {@link #start()}, stops early if the game ends.
+	 * Reseeds the calling threads {@link EngineContext}.
+	 * @return a midgame GameState, the same on every call
+	 */
+	public static GameState midgame() {
+		seedContext();
+		GameState state = start();
+		for(int i=0; i<MIDGAME_PLIES && Utils.getWinner(state) == 3; i++)
+			Utils.execute(state, RandomAI.nextMove(state));
+		seedContext();
+		return state;
+	}
+}
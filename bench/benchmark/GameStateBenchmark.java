@@ -0,0 +1,64 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import core.GameState;
+import core.Move;
+import core.PackedMove;
+import core.Utils;
+import core.playing.random.RandomAI;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+/**
+ * Engine hot paths on a midgame position.
+ * {@link Utils#execute(GameState, Move)} changes the GameState, so it runs on a clone, subtract {@link #cloneState()} to get its own cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GameStateBenchmark {
+	private GameState state;
+	private int move;
+
+	@Setup
+	public void setup() {
+		state = BenchmarkStates.midgame();
+		move = PackedMove.fromMove(state, Utils.getAllPossibleMoves(state).get(0));
+	}
+
+	@Benchmark
+	public GameState cloneState() {
+		return state.clone();
+	}
+
+	@Benchmark
+	public ObjectArrayList<Move> getAllPossibleMoves() {
+		return Utils.getAllPossibleMoves(state);
+	}
+
+	@Benchmark
+	public GameState cloneAndExecute() {
+		GameState clone = state.clone();
+		Utils.execute(clone, PackedMove.toMove(clone, move));
+		return clone;
+	}
+
+	@Benchmark
+	public Move randomNextMove() {
+		return RandomAI.nextMove(state);
+	}
+}
@@ -0,0 +1,55 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import core.GameState;
+import core.playing.guesser.Guesser;
+
+/**
+ * {@link Guesser} probability normalization and convergence from the prebuilt start position.
+ * {@link #normalize()} renormalizes the already normalized matrix, {@link #newGuesser()} includes the initial normalization.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GuesserBenchmark {
+	private GameState start;
+	private Guesser guesser;
+
+	@Setup
+	public void setup() {
+		BenchmarkStates.seedContext();
+		start = BenchmarkStates.start();
+		guesser = new Guesser(start, null);
+	}
+
+	@Benchmark
+	public Guesser newGuesser() {
+		return new Guesser(start, null);
+	}
+
+	@Benchmark
+	public Guesser normalize() {
+		guesser.normalize();
+		return guesser;
+	}
+
+	@Benchmark
+	public GameState converge() {
+		return guesser.converge(true);
+	}
+}
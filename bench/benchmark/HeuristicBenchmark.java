@@ -0,0 +1,55 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import core.GameState;
+import core.Move;
+import core.Utils;
+import core.playing.guesser.Guesser;
+import core.playing.heuristic.MoveHeuristic;
+import core.playing.heuristic.TerminalHeuristic;
+
+/**
+ * Heuristic evaluations on a midgame position
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class HeuristicBenchmark {
+	private GameState state;
+	private Move move;
+	private TerminalHeuristic terminalHeuristic;
+	private MoveHeuristic moveHeuristic;
+
+	@Setup
+	public void setup() {
+		state = BenchmarkStates.midgame();
+		move = Utils.getAllPossibleMoves(state).get(0);
+		terminalHeuristic = new TerminalHeuristic();
+		moveHeuristic = new MoveHeuristic(new Guesser(BenchmarkStates.start(), null));
+	}
+
+	@Benchmark
+	public int terminalEvaluate() {
+		return terminalHeuristic.evaluate(state);
+	}
+
+	@Benchmark
+	public int moveEvaluate() {
+		return moveHeuristic.evaluate(move, state);
+	}
+}
@@ -0,0 +1,54 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import core.playing.mcts.MCTS;
+import core.playing.mcts.NodePool;
+import core.playing.mcts.PooledMCTS;
+import core.playing.mcts.TreeNode;
+
+/**
+ * {@link MCTS} and {@link PooledMCTS} search with a fixed number of iterations instead of the time limit, from the prebuilt start position
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class MCTSBenchmark {
+	@Param({"1000"})
+	public int iterations;
+
+	private MCTS mcts;
+	private PooledMCTS pooled;
+
+	@Setup
+	public void setup() {
+		BenchmarkStates.seedContext();
+		mcts = new MCTS(true, BenchmarkStates.start());
+		pooled = new PooledMCTS(true, BenchmarkStates.start());
+	}
+
+	@Benchmark
+	public TreeNode search() {
+		return mcts.search(iterations);
+	}
+
+	@Benchmark
+	public NodePool pooledSearch() {
+		return pooled.searchPool(iterations);
+	}
+}
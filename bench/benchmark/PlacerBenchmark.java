@@ -0,0 +1,42 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import core.Piece;
+import core.placing.Placer;
+
+/**
+ * Placing one team with every {@link Placer.Type}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PlacerBenchmark {
+	@Param({"PREBUILT", "RANDOM", "DEBOER", "BARRAGE"})
+	public Placer.Type type;
+
+	@Setup
+	public void setup() {
+		BenchmarkStates.seedContext();
+	}
+
+	@Benchmark
+	public Piece[] placePiecesWith() {
+		return Placer.placePiecesWith(true, type);
+	}
+}
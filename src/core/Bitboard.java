@@ -0,0 +1,169 @@
+package core;
+
+/**
+ * Maps the 8x8 board onto 64 bit masks.
+ * The field x|y is represented by the square index x*8+y, i.e. bit (x << 3 | y) of a long.
+ * All methods are static and do not alter their parameters.
+ */
+public class Bitboard {
+	/**
+	 * All squares with y == 0
+	 */
+	public static final long FIRST_ROW = 0x0101010101010101L;
+	/**
+	 * All squares with y == 7
+	 */
+	public static final long LAST_ROW = 0x8080808080808080L;
+	/**
+	 * The four lakes on (2|3), (2|4), (5|3) and (5|4)
+	 */
+	public static final long LAKES = bit(2, 3) | bit(2, 4) | bit(5, 3) | bit(5, 4);
+	/**
+	 * Square index difference of one step into a Direction, indexed by Direction ordinal
+	 */
+	private static final int[] STEPS = {-1, 1, -8, 8};
+	/**
+	 * Per square and Direction all squares from the square (exclusive) up to the first lake or the board edge (both exclusive)
+	 */
+	private static final long[][] RAYS = new long[64][4];
+	/**
+	 * Per square and Direction the number of squares in {@link #RAYS}
+	 */
+	private static final int[][] RAY_LENGTHS = new int[64][4];
+
+	static {
+		for(int square=0; square<64; square++)
+			for(int direction=0; direction<4; direction++) {
+				long bit = 1L << square;
+				while((bit = shift(bit, direction)) != 0 && (bit & LAKES) == 0) {
+					RAYS[square][direction] |= bit;
+					RAY_LENGTHS[square][direction]++;
+				}
+			}
+	}
+
+	/**
+	 * @param x
+	 * @param y
+	 * @return square index of x|y
+	 */
+	public static int square(int x, int y) {
+		return x << 3 | y;
+	}
+
+	/**
+	 * Converts a {@link ByteMapper} position (0xxx0yyy) into a square index (00xxxyyy)
+	 * @param pos ByteMapper position
+	 * @return square index of pos
+	 */
+	public static int square(byte pos) {
+		return (pos >> 1) & 0b111000 | pos & 0b111;
+	}
+
+	/**
+	 * Converts a square index back into a {@link ByteMapper} position
+	 * @param square square index
+	 * @return ByteMapper position of square
+	 */
+	public static byte toByte(int square) {
+		return ByteMapper.toByte(square >> 3, square & 0b111);
+	}
+
+	public static long bit(int x, int y) {
+		return 1L << square(x, y);
+	}
+
+	public static long bit(byte pos) {
+		return 1L << square(pos);
+	}
+
+	public static boolean contains(long board, int square) {
+		return (board & (1L << square)) != 0;
+	}
+
+	/**
+	 * Shifts every set square one step into direction.
+	 * Squares leaving the board get dropped.
+	 * @param board to shift
+	 * @param direction 0 UP (y-1), 1 DOWN (y+1), 2 LEFT (x-1), 3 RIGHT (x+1), see {@link Direction#get(int)}
+	 * @return shifted board
+	 */
+	public static long shift(long board, int direction) {
+		switch(direction) {
+		case 0: return (board >>> 1) & ~LAST_ROW;
+		case 1: return (board << 1) & ~FIRST_ROW;
+		case 2: return board >>> 8;
+		default: return board << 8;
+		}
+	}
+
+	/**
+	 * @param square start square
+	 * @param direction Direction ordinal
+	 * @return all squares a Piece on square could walk over into direction on an empty board, lakes and edge stop the ray
+	 */
+	public static long ray(int square, int direction) {
+		return RAYS[square][direction];
+	}
+
+	/**
+	 * @param square start square
+	 * @param direction Direction ordinal
+	 * @return number of squares in {@link #ray(int, int)}
+	 */
+	public static int rayLength(int square, int direction) {
+		return RAY_LENGTHS[square][direction];
+	}
+
+	/**
+	 * @param square start square
+	 * @param direction Direction ordinal
+	 * @param steps steps into direction, the result has to be on the board
+	 * @return square steps away from square into direction
+	 */
+	public static int step(int square, int direction, int steps) {
+		return square + STEPS[direction] * steps;
+	}
+
+	/**
+	 * Looks up the nearest set square of board on the {@link #ray(int, int)} of square.
+	 * @param square start square
+	 * @param direction Direction ordinal
+	 * @param board squares that block the ray, e.g. all occupied squares
+	 * @return steps from square to the first square of board into direction, 0 if the ray does not hit board
+	 */
+	public static int distanceToFirst(int square, int direction, long board) {
+		long hits = RAYS[square][direction] & board;
+		if(hits == 0)
+			return 0;
+		switch(direction) {
+		case 0: return square - (63 - Long.numberOfLeadingZeros(hits));
+		case 1: return Long.numberOfTrailingZeros(hits) - square;
+		case 2: return (square - (63 - Long.numberOfLeadingZeros(hits))) >> 3;
+		default: return (Long.numberOfTrailingZeros(hits) - square) >> 3;
+		}
+	}
+
+	/**
+	 * @param board
+	 * @return all squares directly next to a set square of board
+	 */
+	public static long neighbors(long board) {
+		return ((board >>> 1) & ~LAST_ROW)
+				| ((board << 1) & ~FIRST_ROW)
+				| (board >>> 8)
+				| (board << 8);
+	}
+
+	/**
+	 * Prints a board to the console, x for set squares
+	 * @param board
+	 */
+	public static void print(long board) {
+		for(int y=0; y<8; y++) {
+			for(int x=0; x<8; x++)
+				System.out.print(contains(board, square(x, y)) ? " x" : " .");
+			System.out.println();
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package core;
+
+import java.util.SplittableRandom;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+/**
+ * Owns the mutable state the engine needs besides a GameState: the random number generator and scratch buffers.
+ * Every thread gets its own context through {@link #current()}, so games and searches can run on many threads at once.
+ * A thread can install its own context with {@link #set(EngineContext)}, e.g. a seeded one for reproducible games.
+ * A context must only be used by one thread at a time.
+ */
+public class EngineContext {
+	private static final ThreadLocal<EngineContext> CURRENT = ThreadLocal.withInitial(EngineContext::new);
+
+	private final SplittableRandom random;
+	/**
+	 * Scratch buffer for Move generation, gets cleared by every user
+	 */
+	private final MoveBuffer moves = new MoveBuffer();
+	/**
+	 * Shared undo stack, users have to unmake all their Moves before returning
+	 */
+	private final UndoStack undo = new UndoStack(64);
+	/**
+	 * The Moves made on {@link #undo}, in the same order
+	 */
+	private final ObjectArrayList<Move> madeMoves = new ObjectArrayList<Move>(64);
+
+	public EngineContext() {
+		this(new SplittableRandom());
+	}
+
+	/**
+	 * @param seed seed of the random number generator, same seeds give the same games
+	 */
+	public EngineContext(long seed) {
+		this(new SplittableRandom(seed));
+	}
+
+	private EngineContext(SplittableRandom random) {
+		this.random = random;
+	}
+
+	/**
+	 * @return the context of the calling thread
+	 */
+	public static EngineContext current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Replaces the context of the calling thread
+	 * @param context
+	 */
+	public static void set(EngineContext context) {
+		CURRENT.set(context);
+	}
+
+	public SplittableRandom getRandom() {
+		return random;
+	}
+
+	public MoveBuffer getMoveBuffer() {
+		return moves;
+	}
+
+	public UndoStack getUndoStack() {
+		return undo;
+	}
+
+	public ObjectArrayList<Move> getMadeMoves() {
+		return madeMoves;
+	}
+}
@@ -42,6 +42,35 @@ public class GameState implements Cloneable {
 	private ShortOpenHashSet chasedFields;
 	private Piece[][] pieces;
 	private Piece[][] field;
+	/**
+	 * {@link Bitboard} of all red Pieces, mirrors the red Pieces in {@link #field}.
+	 */
+	private long redBoard;
+	/**
+	 * {@link Bitboard} of all blue Pieces, mirrors the blue Pieces in {@link #field}.
+	 */
+	private long blueBoard;
+	/**
+	 * One {@link Bitboard} per PieceType byte, containing the Pieces of both teams.
+	 * Combine with {@link #getTeamBoard(boolean)} to get the Pieces of one team.
+	 */
+	private long[] typeBoards = new long[8];
+	/**
+	 * 64 bit {@link Zobrist} key of this GameState, kept up to date by every mutator.
+	 * Covers the Pieces with their known state, the team on turn, {@link #chaseAndRepetitions}, 
+	 * the repetition fields and {@link #chasedFields}.
+	 */
+	private long hash;
+	/**
+	 * Cached result of the terminal checks in {@link Utils}, only valid for the {@link #hash} it got cached with.
+	 * The left 56 bit are the hash, the right 8 bit the result +1, so 0 is never valid.
+	 * Written and read as one volatile long, so concurrent readers of a shared GameState never see a torn entry.
+	 */
+	private volatile long terminalCache;
+	/**
+	 * Record of the Move currently executed by {@link Utils#make(GameState, Move, UndoStack)}, null if nothing gets recorded.
+	 */
+	private UndoStack.Record recording;
 
 	public GameState(Piece[] redPieces, Piece[] bluePieces) {
 		field = new Piece[8][8];
@@ -97,9 +126,32 @@ public class GameState implements Cloneable {
 	 * @param move contains the Piece and new position
 	 */
 	public void move(Move move) {
+		hash ^= Zobrist.piece(move.getPiece(), move.getStart()) ^ Zobrist.piece(move.getPiece(), move.getEnd());
 		field[move.getStartX()][move.getStartY()] = null;
 		field[move.getEndX()][move.getEndY()] = move.getPiece();
 		move.getPiece().setPos(move.getEndX(), move.getEndY());
+
+		long fromTo = Bitboard.bit(move.getStart()) | Bitboard.bit(move.getEnd());
+		if(move.getPiece().getTeam())
+			redBoard ^= fromTo;
+		else
+			blueBoard ^= fromTo;
+		typeBoards[move.getPiece().getType().getByte()] ^= fromTo;
+	}
+
+	/**
+	 * Compares the {@link #hash} first, then all attributes with {@link #equals(GameState)}
+	 */
+	@Override
+	public boolean equals(Object object) {
+		return object instanceof GameState state2 
+				&& state2.hash == hash 
+				&& equals(state2);
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (hash ^ (hash >>> 32));
 	}
 
 	public boolean equals(GameState state2) {
@@ -158,7 +210,14 @@ public class GameState implements Cloneable {
 		Move lastMove = getLastMove();
 		checkIfChase(lastMove, move);
 		if(isInChase()) {
-			getChasedFields().add(ByteMapper.hash(lastMove.getEnd(), move.getEnd()));
+			short chased = ByteMapper.hash(lastMove.getEnd(), move.getEnd());
+			if(getChasedFields().add(chased)) {
+				hash ^= Zobrist.chasedField(chased);
+				if(recording != null) {
+					recording.addedChase = chased;
+					recording.chaseAdded = true;
+				}
+			}
 		}
 	}
 
@@ -182,7 +241,7 @@ public class GameState implements Cloneable {
 						|| !move.getPiece().equals(getBeforeLastMove().getPiece())){ 	// other piece than the chased one gets used
 					setInChase((byte)0);
 					if(getChasedFields().size() > 0)
-						chasedFields.clear();
+						clearChasedFields();
 				}
 			} else {	// chaser does something
 				if(lastMove.getStart() == move.getEnd()) {
@@ -190,7 +249,7 @@ public class GameState implements Cloneable {
 				} else {
 					setInChase((byte)0);
 					if(getChasedFields().size() > 0)
-						chasedFields.clear();
+						clearChasedFields();
 				}
 			}
 		}
@@ -208,6 +267,20 @@ public class GameState implements Cloneable {
 		}
 	}
 
+	/**
+	 * Clears {@link #chasedFields}, saves the cleared fields if a Move gets recorded
+	 */
+	private void clearChasedFields() {
+		if(recording != null && recording.clearedChase.length < chasedFields.size())
+			recording.clearedChase = new short[chasedFields.size()];
+		for(short chased : chasedFields) {
+			hash ^= Zobrist.chasedField(chased);
+			if(recording != null)
+				recording.clearedChase[recording.clearedCount++] = chased;
+		}
+		chasedFields.clear();
+	}
+
 	/**
 	 * Checks if a new Move is in the boundaries of the old Move, meaning a repetition takes place
 	 * @param piece
@@ -275,11 +348,11 @@ public class GameState implements Cloneable {
 		if(team) {
 			for(int i=0;i<10;i++) if(getBluePieces()[i] != null) blueClone[i] = getBluePieces()[i].clone(PieceType.UNKNOWN.getByte());	
 			for(int i=0; i<10; i++) if(getRedPieces()[i] != null) redClone[i] = getRedPieces()[i].clone();
-			Collections.shuffle(Arrays.asList(blueClone));
+			Collections.shuffle(Arrays.asList(blueClone), EngineContext.current().getRandom());
 		} else {
 			for(int i=0;i<10;i++) if(getBluePieces()[i] != null) blueClone[i] = getBluePieces()[i].clone();	
 			for(int i=0; i<10; i++) if(getRedPieces()[i] != null) redClone[i] = getRedPieces()[i].clone(PieceType.UNKNOWN.getByte());
-			Collections.shuffle(Arrays.asList(redClone));
+			Collections.shuffle(Arrays.asList(redClone), EngineContext.current().getRandom());
 		}
 		
 		GameState state = 
@@ -309,8 +382,14 @@ public class GameState implements Cloneable {
 		var pieces = (piece.getTeam() ? getRedPieces() : getBluePieces());
 		for(int i=0; i<10; i++) {
 			if(pieces[i] == piece) {
+				if(recording != null) {
+					recording.captured[recording.capturedCount] = piece;
+					recording.capturedIndex[recording.capturedCount++] = (byte) i;
+				}
 				pieces[i] = null;
 				field[piece.getX()][piece.getY()] = null;
+				hash ^= Zobrist.piece(piece);
+				clearBit(piece);
 				return true;
 			}
 		}
@@ -330,6 +409,144 @@ public class GameState implements Cloneable {
 		for(Piece piece : getBluePieces())
 			if(piece != null)
 				field[piece.getX()][piece.getY()] = piece;
+		updateBitboards();
+	}
+
+	/**
+	 * Recalculates {@link #redBoard}, {@link #blueBoard} and {@link #typeBoards} from {@link #getRedPieces()} and {@link #getBluePieces()}.
+	 * The boards are kept up to date by {@link #move(Move)} and {@link #removePiece(Piece)}, 
+	 * call this after altering {@link #getField()}, Piece positions or PieceTypes directly.
+	 * Also recalculates {@link #hash}.
+	 */
+	public void updateBitboards() {
+		redBoard = 0;
+		blueBoard = 0;
+		for(int i=0; i<typeBoards.length; i++)
+			typeBoards[i] = 0;
+		for(Piece[] teamPieces : pieces)
+			for(Piece piece : teamPieces)
+				if(piece != null) {
+					long bit = Bitboard.bit(piece.getPos());
+					if(piece.getTeam())
+						redBoard |= bit;
+					else
+						blueBoard |= bit;
+					typeBoards[piece.getType().getByte()] |= bit;
+				}
+		hash = computeHash();
+	}
+
+	/**
+	 * Calculates the {@link Zobrist} key of this GameState from scratch.
+	 * Use to verify the incrementally updated {@link #getHash()}.
+	 * @return Zobrist key of this GameState
+	 */
+	public long computeHash() {
+		long hash = team ? 0 : Zobrist.BLUE_TO_MOVE;
+		for(Piece[] teamPieces : pieces)
+			for(Piece piece : teamPieces)
+				if(piece != null)
+					hash ^= Zobrist.piece(piece);
+		hash ^= Zobrist.chaseAndRepetitions(chaseAndRepetitions);
+		hash ^= Zobrist.repetitionFields(true, repetitionRedFields);
+		hash ^= Zobrist.repetitionFields(false, repetitionBlueFields);
+		hash ^= chasedFieldsHash(chasedFields);
+		return hash;
+	}
+
+	private static long chasedFieldsHash(ShortOpenHashSet chasedFields) {
+		long hash = 0;
+		if(chasedFields != null)
+			for(short chased : chasedFields)
+				hash ^= Zobrist.chasedField(chased);
+		return hash;
+	}
+
+	/**
+	 * Sets piece known and increments the known Pieces of its team.
+	 * @param piece Piece that gets revealed to the enemy
+	 */
+	public void revealPiece(Piece piece) {
+		if(!piece.getKnown()) {
+			if(recording != null)
+				recording.revealed[recording.revealedCount++] = piece;
+			hash ^= Zobrist.piece(piece);
+			piece.setKnown(true);
+			hash ^= Zobrist.piece(piece);
+			incrementKnown(piece.getTeam());
+		}
+	}
+
+	/**
+	 * Saves all attributes a Move can alter on record and records the following Move execution into it.
+	 * Call {@link #stopRecording()} after the Move got executed.
+	 * @param record empty record from an {@link UndoStack}
+	 */
+	void startRecording(UndoStack.Record record) {
+		record.team = team;
+		record.chaseAndRepetitions = chaseAndRepetitions;
+		record.knownPieces = knownPieces;
+		record.deadPieces = deadPieces;
+		record.repetitionRedFields = repetitionRedFields;
+		record.repetitionBlueFields = repetitionBlueFields;
+		record.firstRepetitionRedMove = firstRepetitionRedMove;
+		record.firstRepetitionBlueMove = firstRepetitionBlueMove;
+		record.redBoard = redBoard;
+		record.blueBoard = blueBoard;
+		System.arraycopy(typeBoards, 0, record.typeBoards, 0, typeBoards.length);
+		record.hash = hash;
+		recording = record;
+	}
+
+	void stopRecording() {
+		recording = null;
+	}
+
+	/**
+	 * Takes back move, restoring this GameState exactly as it was before move got executed.
+	 * @param move the last Move executed on this GameState
+	 * @param record the record move got executed with
+	 */
+	void restore(Move move, UndoStack.Record record) {
+		Piece mover = move.getPiece();
+		if(field[move.getEndX()][move.getEndY()] == mover)
+			field[move.getEndX()][move.getEndY()] = null;
+		for(int i=record.capturedCount-1; i>=0; i--) {
+			Piece captured = record.captured[i];
+			pieces[captured.getTeam() ? 0 : 1][record.capturedIndex[i]] = captured;
+			field[captured.getX()][captured.getY()] = captured;
+		}
+		mover.setPos(move.getStart());
+		field[move.getStartX()][move.getStartY()] = mover;
+		for(int i=0; i<record.revealedCount; i++)
+			record.revealed[i].setKnown(false);
+
+		if(record.chaseAdded)
+			chasedFields.remove(record.addedChase);
+		for(int i=0; i<record.clearedCount; i++)
+			chasedFields.add(record.clearedChase[i]);
+
+		team = record.team;
+		chaseAndRepetitions = record.chaseAndRepetitions;
+		knownPieces = record.knownPieces;
+		deadPieces = record.deadPieces;
+		repetitionRedFields = record.repetitionRedFields;
+		repetitionBlueFields = record.repetitionBlueFields;
+		firstRepetitionRedMove = record.firstRepetitionRedMove;
+		firstRepetitionBlueMove = record.firstRepetitionBlueMove;
+		redBoard = record.redBoard;
+		blueBoard = record.blueBoard;
+		System.arraycopy(record.typeBoards, 0, typeBoards, 0, typeBoards.length);
+		hash = record.hash;
+	}
+
+	private void clearBit(Piece piece) {
+		long bit = ~Bitboard.bit(piece.getPos());
+		if(piece.getTeam())
+			redBoard &= bit;
+		else
+			blueBoard &= bit;
+		typeBoards[piece.getType().getByte()] &= bit;
 	}
 	
 	
@@ -410,6 +627,7 @@ public class GameState implements Cloneable {
 	public void setPiecesAndField(Piece[][] pieces, Piece[][] field) {
 		this.field = field;
 		this.pieces = pieces;
+		updateBitboards();
 		if(firstRepetitionBlueMove != null)
 			firstRepetitionBlueMove.normalize(this);
 		if(firstRepetitionRedMove != null)
@@ -421,6 +639,7 @@ public class GameState implements Cloneable {
 	}
 	
 	public void setChaseAndRepetitions(byte chaseAndRepetitions) {
+		hash ^= Zobrist.chaseAndRepetitions(this.chaseAndRepetitions) ^ Zobrist.chaseAndRepetitions(chaseAndRepetitions);
 		this.chaseAndRepetitions = chaseAndRepetitions;
 	}
 	
@@ -443,7 +662,7 @@ public class GameState implements Cloneable {
 	}
 
 	public void setInChase(byte inChase) {
-		chaseAndRepetitions = (byte) ((chaseAndRepetitions & 0b00001111) | (inChase << 4));
+		setChaseAndRepetitions((byte) ((chaseAndRepetitions & 0b00001111) | (inChase << 4)));
 	}
 
 	public int getInChase() {
@@ -520,6 +739,10 @@ public class GameState implements Cloneable {
 	}
 	
 	public void setRepMove(Move move) {
+		if(recording != null) {
+			setRecordedRepMove(move);
+			return;
+		}
 		if(move.getPiece().getTeam()) {
 			setFirstRepetitionRedMove(move);
 //			ByteOpenHashSet moves = new ByteOpenHashSet(move.getRelevantFields());
@@ -531,6 +754,26 @@ public class GameState implements Cloneable {
 		}
 	}
 
+	/**
+	 * Like {@link #setRepMove(Move)}, but copies move into the recording's own Move instead of cloning it.
+	 * The recorded Move only gets referenced until the record gets restored.
+	 * @param move
+	 */
+	private void setRecordedRepMove(Move move) {
+		if(recording.repMove == null)
+			recording.repMove = new Move(move.getPiece(), move.getStart(), move.getEnd(), move.getDirection(), (byte) move.getFields());
+		else
+			recording.repMove.set(move.getPiece(), move.getStart(), move.getEnd(), move.getDirection(), (byte) move.getFields());
+		recording.repMove.normalize(this);
+		if(move.getPiece().getTeam()) {
+			firstRepetitionRedMove = recording.repMove;
+			setRepetitionRedFields(move.getRelevantFields());
+		} else {
+			firstRepetitionBlueMove = recording.repMove;
+			setRepetitionBlueFields(move.getRelevantFields());
+		}
+	}
+
 	public Piece[] getCurrentPieces() {
 		return getTeam() ? getRedPieces() : getBluePieces();
 	}
@@ -540,17 +783,63 @@ public class GameState implements Cloneable {
 	}
 
 	public void setTeam(boolean team) {
-		this.team = team;
+		if(this.team != team)
+			changeTeam();
 	}
 
 	public void changeTeam() {
 		team = !team;
+		hash ^= Zobrist.BLUE_TO_MOVE;
+	}
+
+	/**
+	 * @return the cached terminal info for the current {@link #hash}, -1 if none is cached
+	 */
+	int getCachedTerminalInfo() {
+		long cache = terminalCache;
+		if(cache >>> 8 != (hash & 0x00FFFFFFFFFFFFFFL))
+			return -1;
+		return (int) (cache & 0xFF) - 1;
+	}
+
+	void cacheTerminalInfo(int info) {
+		terminalCache = hash << 8 | (info + 1);
+	}
+
+	/**
+	 * @return the {@link Zobrist} key of this GameState
+	 */
+	public long getHash() {
+		return hash;
 	}
 
 	public Piece[][] getField() {
 		return field;
 	}
 
+	/**
+	 * @param team true for red
+	 * @return {@link Bitboard} of all Pieces of team
+	 */
+	public long getTeamBoard(boolean team) {
+		return team ? redBoard : blueBoard;
+	}
+
+	/**
+	 * @return {@link Bitboard} of all Pieces on the field
+	 */
+	public long getOccupied() {
+		return redBoard | blueBoard;
+	}
+
+	/**
+	 * @param type
+	 * @return {@link Bitboard} of all Pieces of type, both teams
+	 */
+	public long getTypeBoard(PieceType type) {
+		return typeBoards[type.getByte()];
+	}
+
 	public Piece[][] getPieces() {
 		return pieces;
 	}
@@ -605,6 +894,7 @@ public class GameState implements Cloneable {
 	}
 
 	public void setRepetitionRedFields(short repetitionRedFields) {
+		hash ^= Zobrist.repetitionFields(true, this.repetitionRedFields) ^ Zobrist.repetitionFields(true, repetitionRedFields);
 		this.repetitionRedFields = repetitionRedFields;
 	}
 
@@ -613,6 +903,7 @@ public class GameState implements Cloneable {
 	}
 
 	public void setRepetitionBlueFields(short repetitionBlueFields) {
+		hash ^= Zobrist.repetitionFields(false, this.repetitionBlueFields) ^ Zobrist.repetitionFields(false, repetitionBlueFields);
 		this.repetitionBlueFields = repetitionBlueFields;
 	}
 
@@ -620,7 +911,11 @@ public class GameState implements Cloneable {
 		return chasedFields;
 	}
 
+	/**
+	 * Alter the returned set only through this GameState, otherwise {@link #getHash()} gets outdated.
+	 */
 	public void setChasedFields(ShortOpenHashSet chasedFields) {
+		hash ^= chasedFieldsHash(this.chasedFields) ^ chasedFieldsHash(chasedFields);
 		this.chasedFields = chasedFields;
 	}
 }
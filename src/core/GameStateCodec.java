@@ -0,0 +1,134 @@
+package core;
+
+import java.nio.ByteBuffer;
+
+import it.unimi.dsi.fastutil.shorts.ShortOpenHashSet;
+
+/**
+ * Compact binary representation of a {@link GameState}.
+ * Works on heap and direct ByteBuffers, reads and writes at the buffers position and advances it.
+ * The layout is the following:
+ * <pre>
+ * byte     flags: team on turn, red repetition Move present, blue repetition Move present
+ * byte     chaseAndRepetitions, known Pieces, dead Pieces (see GameState)
+ * short    red repetition fields, blue repetition fields
+ * 20*2byte red Pieces then blue Pieces, position and knownAndType, position -1 for dead Pieces
+ * 0-2*6byte repetition Moves red then blue: Piece knownAndType and position, start, end, Direction ordinal, fields
+ * short    number of chased fields, followed by the chased fields
+ * </pre>
+ * Like {@link GameState#clone()}, Pieces do not keep their start position.
+ */
+public class GameStateCodec {
+	private static final int TEAM = 0b001;
+	private static final int RED_REPETITION = 0b010;
+	private static final int BLUE_REPETITION = 0b100;
+	private static final byte DEAD = -1;
+
+	/**
+	 * @param state
+	 * @return the number of bytes {@link #encode(GameState, ByteBuffer)} writes for state
+	 */
+	public static int encodedSize(GameState state) {
+		return 8 + 40
+				+ (state.getFirstRepetitionRedMove() != null ? 6 : 0)
+				+ (state.getFirstRepetitionBlueMove() != null ? 6 : 0)
+				+ 2 + 2 * state.getChasedFields().size();
+	}
+
+	/**
+	 * Writes state into buffer, buffer needs {@link #encodedSize(GameState)} remaining bytes.
+	 * @param state GameState to write
+	 * @param buffer to write into
+	 */
+	public static void encode(GameState state, ByteBuffer buffer) {
+		Move redMove = state.getFirstRepetitionRedMove();
+		Move blueMove = state.getFirstRepetitionBlueMove();
+		buffer.put((byte) ((state.getTeam() ? TEAM : 0)
+				| (redMove != null ? RED_REPETITION : 0)
+				| (blueMove != null ? BLUE_REPETITION : 0)));
+		buffer.put((byte) state.getChaseAndRepetitions());
+		buffer.put((byte) state.getKnown());
+		buffer.put((byte) state.getDead());
+		buffer.putShort(state.getRepetitionRedFields());
+		buffer.putShort(state.getRepetitionBlueFields());
+
+		for(Piece[] teamPieces : state.getPieces())
+			for(Piece piece : teamPieces) {
+				if(piece == null) {
+					buffer.put(DEAD);
+					buffer.put((byte) 0);
+				} else {
+					buffer.put(piece.getPos());
+					buffer.put(piece.getKnownAndType());
+				}
+			}
+
+		if(redMove != null)
+			encodeMove(redMove, buffer);
+		if(blueMove != null)
+			encodeMove(blueMove, buffer);
+
+		buffer.putShort((short) state.getChasedFields().size());
+		for(short chased : state.getChasedFields())
+			buffer.putShort(chased);
+	}
+
+	private static void encodeMove(Move move, ByteBuffer buffer) {
+		buffer.put(move.getPiece().getKnownAndType());
+		buffer.put(move.getPiece().getPos());
+		buffer.put(move.getStart());
+		buffer.put(move.getEnd());
+		buffer.put((byte) (move.getDirection() == null ? -1 : move.getDirection().ordinal()));
+		buffer.put((byte) move.getFields());
+	}
+
+	/**
+	 * Reads a GameState written by {@link #encode(GameState, ByteBuffer)}.
+	 * @param buffer to read from
+	 * @return the decoded GameState
+	 */
+	public static GameState decode(ByteBuffer buffer) {
+		int flags = buffer.get();
+		byte chaseAndRepetitions = buffer.get();
+		byte knownPieces = buffer.get();
+		byte deadPieces = buffer.get();
+		short repetitionRedFields = buffer.getShort();
+		short repetitionBlueFields = buffer.getShort();
+
+		Piece[] redPieces = decodePieces(true, buffer);
+		Piece[] bluePieces = decodePieces(false, buffer);
+
+		Move redMove = (flags & RED_REPETITION) != 0 ? decodeMove(true, buffer) : null;
+		Move blueMove = (flags & BLUE_REPETITION) != 0 ? decodeMove(false, buffer) : null;
+
+		int chasedCount = buffer.getShort();
+		ShortOpenHashSet chasedFields = new ShortOpenHashSet(chasedCount);
+		for(int i=0; i<chasedCount; i++)
+			chasedFields.add(buffer.getShort());
+
+		return new GameState(redPieces, bluePieces, (flags & TEAM) != 0,
+				chaseAndRepetitions, knownPieces, deadPieces,
+				redMove, blueMove,
+				repetitionRedFields, repetitionBlueFields, chasedFields);
+	}
+
+	private static Piece[] decodePieces(boolean team, ByteBuffer buffer) {
+		Piece[] pieces = new Piece[10];
+		for(int i=0; i<10; i++) {
+			byte pos = buffer.get();
+			byte knownAndType = buffer.get();
+			if(pos != DEAD)
+				pieces[i] = new Piece(knownAndType, team, pos);
+		}
+		return pieces;
+	}
+
+	private static Move decodeMove(boolean team, ByteBuffer buffer) {
+		Piece piece = new Piece(buffer.get(), team, buffer.get());
+		byte start = buffer.get();
+		byte end = buffer.get();
+		int direction = buffer.get();
+		byte fields = buffer.get();
+		return new Move(piece, start, end, direction == -1 ? null : Direction.get(direction), fields);
+	}
+}
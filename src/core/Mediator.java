@@ -76,13 +76,10 @@ public class Mediator {
 		PieceType defender = gameState.inspect(move.getEndX(), move.getEndY()) != null 
 				? gameState.inspect(move.getEndX(), move.getEndY()).getType() : null;
 		boolean moved = Utils.checkAndExecute(gameState, move);
-		stateGame = gameState;
 		if(moved)
 			setLastMove(move, isAttack, attacker, defender);
 		return moved;
 	}
-	public static GameState stateGame;
-	
 	
 	/**
 	 * Obfuscates the GameState for a given player.
@@ -58,6 +58,17 @@ public class Move {
 		this.fields = fields;
 	}
 	
+	/**
+	 * Overwrites all attributes, used to reuse Move objects
+	 */
+	void set(Piece piece, byte start, byte end, Direction direction, byte fields) {
+		this.piece = piece;
+		this.start = start;
+		this.end = end;
+		this.direction = direction;
+		this.fields = fields;
+	}
+
 	/**
 	 * Normalizes the Move, i.e. if this Moves Piece is not from state, the reference from the according state Piece gets used.
 	 * @param state
@@ -0,0 +1,78 @@
+package core;
+
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+/**
+ * Reusable buffer of {@link PackedMove}s.
+ * Filled by {@link Utils#generateMoves(GameState, MoveBuffer)}, the caller owns the buffer and can reuse it for every GameState.
+ */
+public class MoveBuffer {
+	private int[] moves;
+	private int size;
+
+	public MoveBuffer() {
+		this(32);
+	}
+
+	public MoveBuffer(int capacity) {
+		moves = new int[capacity];
+	}
+
+	public void add(int move) {
+		if(size == moves.length)
+			moves = Arrays.copyOf(moves, moves.length * 2);
+		moves[size++] = move;
+	}
+
+	public int get(int index) {
+		return moves[index];
+	}
+
+	/**
+	 * Removes the Move at index by replacing it with the last Move.
+	 * Does not keep the order of the buffer.
+	 * @param index
+	 * @return the removed Move
+	 */
+	public int removeAt(int index) {
+		int move = moves[index];
+		moves[index] = moves[--size];
+		return move;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * @return a copy of this buffer with the exact size as capacity
+	 */
+	public MoveBuffer copy() {
+		MoveBuffer copy = new MoveBuffer(Math.max(size, 1));
+		System.arraycopy(moves, 0, copy.moves, 0, size);
+		copy.size = size;
+		return copy;
+	}
+
+	/**
+	 * Creates {@link Move} objects for all buffered Moves
+	 * @param state GameState containing the moving Pieces
+	 * @return list of Moves
+	 */
+	public ObjectArrayList<Move> toMoves(GameState state) {
+		ObjectArrayList<Move> list = new ObjectArrayList<Move>(size);
+		for(int i=0; i<size; i++)
+			list.add(PackedMove.toMove(state, moves[i]));
+		return list;
+	}
+}
@@ -0,0 +1,95 @@
+package core;
+
+/**
+ * Maps a Move onto a primitive int, so Moves can be generated and stored without creating {@link Move} objects.
+ * The bitmap is the following, where t is the team (1 = red), i the index in the teams Pieces array,
+ * d the Direction ordinal, f the fields, s the start and e the end position as {@link ByteMapper} bytes:
+ * 000000ti iiiddfff ssssssss eeeeeeee
+ */
+public class PackedMove {
+	public static int pack(boolean team, int pieceIndex, Direction direction, int fields, byte start, byte end) {
+		return (team ? 1 << 25 : 0)
+				| pieceIndex << 21
+				| direction.ordinal() << 19
+				| fields << 16
+				| (start & 0xFF) << 8
+				| (end & 0xFF);
+	}
+
+	/**
+	 * Packs piece, which has to be stored at pieceIndex in its teams Pieces array
+	 * @param piece Piece that moves
+	 * @param pieceIndex index of piece in {@link GameState#getRedPieces()} or {@link GameState#getBluePieces()}
+	 * @param direction Direction piece moves into
+	 * @param fields steps into direction
+	 * @return packed Move
+	 */
+	public static int pack(Piece piece, int pieceIndex, Direction direction, int fields) {
+		byte start = piece.getPos();
+		return pack(piece.getTeam(), pieceIndex, direction, fields, start, direction.translate(start, fields));
+	}
+
+	public static boolean getTeam(int move) {
+		return (move >> 25 & 1) == 1;
+	}
+
+	public static int getPieceIndex(int move) {
+		return move >> 21 & 0b1111;
+	}
+
+	public static Direction getDirection(int move) {
+		return Direction.get(move >> 19 & 0b11);
+	}
+
+	public static int getFields(int move) {
+		return move >> 16 & 0b111;
+	}
+
+	public static byte getStart(int move) {
+		return (byte) (move >> 8);
+	}
+
+	public static byte getEnd(int move) {
+		return (byte) move;
+	}
+
+	/**
+	 * @param state GameState move was generated in
+	 * @param move packed Move
+	 * @return the moving Piece from state
+	 */
+	public static Piece getPiece(GameState state, int move) {
+		return state.getPieces()[getTeam(move) ? 0 : 1][getPieceIndex(move)];
+	}
+
+	/**
+	 * Creates a {@link Move} from a packed Move, using the Piece from state.
+	 * state can be a clone of the GameState move was generated in.
+	 * @param state GameState containing the moving Piece
+	 * @param move packed Move
+	 * @return Move object of move
+	 */
+	public static Move toMove(GameState state, int move) {
+		return new Move(getPiece(state, move), getDirection(move), getFields(move));
+	}
+
+	/**
+	 * Packs a Move, its Piece has to be in state.
+	 * @param state GameState containing the Pieces of move
+	 * @param move Move to pack
+	 * @return packed Move, -1 if the Piece is not in state
+	 */
+	public static int fromMove(GameState state, Move move) {
+		Piece[] pieces = state.getPieces()[move.getPiece().getTeam() ? 0 : 1];
+		for(int i=0; i<pieces.length; i++)
+			if(pieces[i] == move.getPiece())
+				return pack(move.getPiece().getTeam(), i, move.getDirection(), move.getFields(), move.getStart(), move.getEnd());
+		return -1;
+	}
+
+	public static String toString(int move) {
+		return (getTeam(move) ? "r" : "b") + "[" + getPieceIndex(move) + "]"
+				+ "[" + ByteMapper.getX(getStart(move)) + "|" + ByteMapper.getY(getStart(move)) + "]" + " to "
+				+ "[" + ByteMapper.getX(getEnd(move)) + "|" + ByteMapper.getY(getEnd(move)) + "]";
+	}
+}
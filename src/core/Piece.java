@@ -110,6 +110,13 @@ public class Piece implements Cloneable {
 		return new Piece(type, team, pos);
 	}
 
+	/**
+	 * @return known bit and PieceType as one byte, see {@link #knownAndType}
+	 */
+	public byte getKnownAndType() {
+		return knownAndType;
+	}
+
 	public PieceType getType() {
 		return PieceType.getType(knownAndType);
 	}
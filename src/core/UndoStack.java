@@ -0,0 +1,102 @@
+package core;
+
+/**
+ * Stack of undo records for {@link Utils#make(GameState, Move, UndoStack)} and {@link Utils#unmake(GameState, Move, UndoStack)}.
+ * Records get allocated once and reused, the caller owns the stack and can reuse it for every GameState.
+ * Moves have to be unmade in the reverse order they were made in.
+ */
+public class UndoStack {
+	private Record[] records;
+	private int size;
+
+	public UndoStack() {
+		this(64);
+	}
+
+	public UndoStack(int capacity) {
+		records = new Record[capacity];
+	}
+
+	/**
+	 * @return a cleared record on top of the stack
+	 */
+	Record push() {
+		if(size == records.length) {
+			Record[] grown = new Record[records.length * 2];
+			System.arraycopy(records, 0, grown, 0, size);
+			records = grown;
+		}
+		if(records[size] == null)
+			records[size] = new Record();
+		Record record = records[size++];
+		record.clear();
+		return record;
+	}
+
+	/**
+	 * @return the record on top of the stack, removes it
+	 */
+	Record pop() {
+		return records[--size];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Everything one executed Move alters on a GameState
+	 */
+	static class Record {
+		boolean team;
+		byte chaseAndRepetitions;
+		byte knownPieces;
+		byte deadPieces;
+		short repetitionRedFields;
+		short repetitionBlueFields;
+		Move firstRepetitionRedMove;
+		Move firstRepetitionBlueMove;
+		/**
+		 * Repetition Move owned by this record, reused instead of cloning the executed Move
+		 */
+		Move repMove;
+		long redBoard;
+		long blueBoard;
+		long[] typeBoards = new long[8];
+		long hash;
+
+		/**
+		 * A Move removes at most two Pieces, attacker and defender
+		 */
+		Piece[] captured = new Piece[2];
+		byte[] capturedIndex = new byte[2];
+		int capturedCount;
+		/**
+		 * A Move reveals at most two Pieces, attacker and defender
+		 */
+		Piece[] revealed = new Piece[2];
+		int revealedCount;
+
+		short[] clearedChase = new short[8];
+		int clearedCount;
+		short addedChase;
+		boolean chaseAdded;
+
+		private void clear() {
+			firstRepetitionRedMove = null;
+			firstRepetitionBlueMove = null;
+			capturedCount = 0;
+			revealedCount = 0;
+			clearedCount = 0;
+			chaseAdded = false;
+		}
+	}
+}
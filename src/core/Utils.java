@@ -23,7 +23,7 @@ public class Utils {
 	 * @return
 	 */
 	public static boolean isAttack(GameState state, Move move) {
-		return state.inspect(move.getEndX(), move.getEndY()) instanceof Piece;
+		return (state.getOccupied() & Bitboard.bit(move.getEnd())) != 0;
 	}
 
 	/**
@@ -41,6 +41,33 @@ public class Utils {
 		return true;
 	}
 
+	/**
+	 * Executes move on state without checking if the Move is possible.
+	 * Records everything move alters on undo, so {@link #unmake(GameState, Move, UndoStack)} can take it back.
+	 * Does not clone state, use it to walk one GameState down and back up a search.
+	 * @param state GameState
+	 * @param move Move
+	 * @param undo stack to record move on
+	 * @return true after execution
+	 */
+	public static boolean make(GameState state, Move move, UndoStack undo) {
+		state.startRecording(undo.push());
+		boolean executed = execute(state, move);
+		state.stopRecording();
+		return executed;
+	}
+
+	/**
+	 * Takes back move, the last Move made on state with {@link #make(GameState, Move, UndoStack)}.
+	 * state is exactly the same as before move was made afterwards.
+	 * @param state GameState
+	 * @param move last made Move
+	 * @param undo stack move was recorded on
+	 */
+	public static void unmake(GameState state, Move move, UndoStack undo) {
+		state.restore(move, undo.pop());
+	}
+
 	/**
 	 * Delay to use without adding too much code.
 	 * Stops the code when an Exception is thrown.
@@ -89,14 +116,12 @@ public class Utils {
 	}
 	
 	private static void revealPiece(Piece piece, GameState state) {
-		if(!piece.getKnown()) {
-			piece.setKnown(true);
-			state.incrementKnown(piece.getTeam());
-		}
+		state.revealPiece(piece);
 	}
 
 	/**
-	 * 
+	 * Checks if piece can move fields steps into dir, ending on x|y.
+	 * Bounds, lakes, blocking Pieces and the Pieces move range are looked up in the {@link Bitboard} ray tables.
 	 * @param state
 	 * @param piece
 	 * @param x end x
@@ -107,10 +132,9 @@ public class Utils {
 	 */
 	public static boolean isMovePossible(GameState state, Piece piece, int x, int y, Direction dir, int fields) {
 		if(state.getTeam() != piece.getTeam()) return false;	// is Pieces turn?
-		if(isOutOfBoundsOrBlocked(state.getField(), x, y, piece.getTeam())) return false;
-		
-		if(!canReach(piece,x, y)) return false;	// is Piece reachable?
-		if(!sightLine(state.getField(), piece, fields, dir)) return false;
+		if(outOfBounds(x) || outOfBounds(y)) return false;	// is Move out of bounds?
+		if(fields < 1 || fields > reach(state, piece, dir.ordinal())) return false;	// is x|y in reach and the way unobstructed?
+		if(Bitboard.step(Bitboard.square(piece.getPos()), dir.ordinal(), fields) != Bitboard.square(x, y)) return false;	// is x|y the end of the Move?
 
 		if(twoSquaresRule(state, piece, x, y)) return false;
 		if(moreSquaresRule(state, ByteMapper.toByte(x, y))) return false;
@@ -118,6 +142,38 @@ public class Utils {
 		return true;
 	}
 
+	/**
+	 * Checks if the two squares or more squares rule forbids piece to move onto x|y.
+	 * Both rules can only apply if {@link #rulesActive(GameState)} is true.
+	 * @param state
+	 * @param piece
+	 * @param x end x
+	 * @param y end y
+	 * @return true if the move is invalid
+	 */
+	public static boolean ruleViolated(GameState state, Piece piece, int x, int y) {
+		return twoSquaresRule(state, piece, x, y) || moreSquaresRule(state, piece.getTeam(), ByteMapper.toByte(x, y));
+	}
+
+	/**
+	 * Cheap pre check for {@link #twoSquaresRule(GameState, Piece, int, int)} and {@link #moreSquaresRule(GameState, byte)}.
+	 * @param state
+	 * @return false if neither rule can forbid a Move in state
+	 */
+	public static boolean rulesActive(GameState state) {
+		return rulesActive(state, state.getTeam());
+	}
+
+	/**
+	 * {@link #rulesActive(GameState)} for the Pieces of team, even if team is not on turn
+	 * @param state
+	 * @param team true for red
+	 * @return false if neither rule can forbid a Move of team in state
+	 */
+	public static boolean rulesActive(GameState state, boolean team) {
+		return (team ? state.getRepetitionsRed() : state.getRepetitionsBlue()) > 2 || state.isInChase();
+	}
+
 	/**
 	 * Fills dirMap with Direction-reach pairs to represent how many fields a Piece can walk into a given direction.
 	 * @param state
@@ -127,7 +183,7 @@ public class Utils {
 	public static void fillDirectionMap(GameState state, Piece picked, ObjectArrayList<int[]> dirMap){
 		dirMap.clear();
 		for(int direction=0; direction<4; direction++) {
-			int reach = reach(state.getField(), picked, direction, null);
+			int reach = reach(state, picked, direction);
 			if(reach > 0) dirMap.add(new int[] {direction, reach});
 		}
 	}
@@ -177,6 +233,41 @@ public class Utils {
 		return true;
 	}
 
+	/**
+	 * {@link #sightLine(Piece[][], Piece, int, Direction)} on the precomputed {@link Bitboard} rays.
+	 * @param state GameState piece moves in
+	 * @param piece Piece that moves
+	 * @param fields how many steps into a Direction
+	 * @param direction Direction the piece wants to move
+	 * @return true if nothing blocks the pieces line of sight within fields steps into direction
+	 */
+	public static boolean sightLine(GameState state, Piece piece, int fields, Direction direction) {
+		if(fields < 2) return true;
+
+		int square = Bitboard.square(piece.getPos());
+		if(fields - 1 > Bitboard.rayLength(square, direction.ordinal()))	// lake or edge in between
+			return false;
+		int blocker = Bitboard.distanceToFirst(square, direction.ordinal(), state.getOccupied());
+		return blocker == 0 || blocker >= fields;
+	}
+
+	/**
+	 * {@link #reach(Piece[][], Piece, int, ArrayList)} on the precomputed {@link Bitboard} rays.
+	 * @param state GameState piece moves in
+	 * @param piece Piece that moves
+	 * @param direction Direction int the piece wants to move
+	 * @return the fields a Piece can walk into the given direction, including a field with an enemy Piece
+	 */
+	public static int reach(GameState state, Piece piece, int direction) {
+		int square = Bitboard.square(piece.getPos());
+		int reach = Bitboard.distanceToFirst(square, direction, state.getOccupied());
+		if(reach == 0)
+			reach = Bitboard.rayLength(square, direction);
+		else if(Bitboard.contains(state.getTeamBoard(piece.getTeam()), Bitboard.step(square, direction, reach)))
+			reach--;
+		return Math.min(reach, piece.getType().getMoves());
+	}
+
 	/**
 	 * Returns a Pieces reach into a given direction.
 	 * The reach is impacted by the field border, same team Pieces and the lakes.
@@ -348,7 +439,7 @@ public class Utils {
 	 * @return true if the rule applies, move is invalid
 	 */
 	public static boolean twoSquaresRule(GameState state, Piece piece, int x, int y) {
-		return state.getCurrentRepetitions() > 2
+		return (piece.getTeam() ? state.getRepetitionsRed() : state.getRepetitionsBlue()) > 2
 				&& state.inMoveBounds(piece, x, y) 
 				&& state.getFirstRepetitionMove(piece.getTeam()).getPiece().equals(piece);
 	}
@@ -360,8 +451,19 @@ public class Utils {
 	 * @return true if the rule applies, move is invalid
 	 */
 	public static boolean moreSquaresRule(GameState state, byte endPos) {
+		return moreSquaresRule(state, state.getTeam(), endPos);
+	}
+
+	/**
+	 * {@link #moreSquaresRule(GameState, byte)} for a Move of team, even if team is not on turn
+	 * @param state
+	 * @param team true for red
+	 * @param endPos endPosition
+	 * @return true if the rule applies, move is invalid
+	 */
+	public static boolean moreSquaresRule(GameState state, boolean team, byte endPos) {
 		if(state.isInChase()) {
-			return state.getChasedFields().contains(ByteMapper.hash(state.getLastMove().getEnd(), endPos));
+			return state.getChasedFields().contains(ByteMapper.hash(state.getRepMove(!team).getEnd(), endPos));
 		} else {
 			return false;
 		}
@@ -370,28 +472,51 @@ public class Utils {
 	/**
 	 * Generates a list of all possible Moves (based on gameState current team).
 	 * Does not check if the game is still going i.e. no checks for the existence of flags are done here.
+	 * Creates a Move object for every possible Move, use {@link #generateMoves(GameState, MoveBuffer)} in hot paths.
 	 * @param state the gameState to analyze. Its team attribute is considered.
 	 * @return all possible moves in gameState
 	 */
 	public static ObjectArrayList<Move> getAllPossibleMoves(GameState state) {
-		ObjectArrayList<Move> moves = new ObjectArrayList<Move>();
+		MoveBuffer moves = new MoveBuffer();
+		generateMoves(state, moves);
+		return moves.toMoves(state);
+	}
+
+	/**
+	 * Writes all possible Moves (based on gameState current team) as {@link PackedMove}s into moves.
+	 * Only legal Moves get generated, no further {@link #isMovePossible(GameState, Piece, int, int, Direction, int)} check is needed.
+	 * Does not check if the game is still going i.e. no checks for the existence of flags are done here.
+	 * @param state the gameState to analyze. Its team attribute is considered.
+	 * @param moves buffer to fill, gets cleared first
+	 * @return the number of possible Moves
+	 */
+	public static int generateMoves(GameState state, MoveBuffer moves) {
+		moves.clear();
+		boolean rulesActive = rulesActive(state);
+		Piece[] pieces = state.getCurrentPieces();
 		for(int i=0; i<7; i++) {
-			if(state.getCurrentPieces()[i] == null) continue;
-			for(int reach=0; reach<state.getCurrentPieces()[i].getType().getMoves(); reach++) {
-				for(Direction dir : Direction.values()) {
-					Piece piece = state.getCurrentPieces()[i];
-					if(isMovePossible(state, piece, 
-							Move.calcEndX(piece.getX(), dir, reach+1), 
-							Move.calcEndY(piece.getY(), dir, reach+1),
-							dir, reach+1)) {
-						moves.add(new Move(state.getCurrentPieces()[i], dir, reach+1));
-					} else {
-						continue;
-					}
-				}
+			Piece piece = pieces[i];
+			if(piece == null) continue;
+			int up = reach(state, piece, 0);
+			int down = reach(state, piece, 1);
+			int left = reach(state, piece, 2);
+			int right = reach(state, piece, 3);
+			int maxReach = Math.max(Math.max(up, down), Math.max(left, right));
+			for(int reach=1; reach<=maxReach; reach++) {
+				if(up >= reach) addMove(state, moves, piece, i, Direction.UP, reach, rulesActive);
+				if(down >= reach) addMove(state, moves, piece, i, Direction.DOWN, reach, rulesActive);
+				if(left >= reach) addMove(state, moves, piece, i, Direction.LEFT, reach, rulesActive);
+				if(right >= reach) addMove(state, moves, piece, i, Direction.RIGHT, reach, rulesActive);
 			}
 		}
-		return moves;
+		return moves.size();
+	}
+
+	private static void addMove(GameState state, MoveBuffer moves, Piece piece, int index, Direction dir, int fields, boolean rulesActive) {
+		byte end = dir.translate(piece.getPos(), fields);
+		if(rulesActive && ruleViolated(state, piece, ByteMapper.getX(end), ByteMapper.getY(end))) 
+			return;
+		moves.add(PackedMove.pack(piece.getTeam(), index, dir, fields, piece.getPos(), end));
 	}
 
 	/**
@@ -403,19 +528,18 @@ public class Utils {
 	 */
 	public static Move[] getPiecePossibleMoves(GameState state, Piece piece) {
 		ArrayList<Move> moves = new ArrayList<Move>();
+		if(state.getTeam() != piece.getTeam()) return new Move[0];
+		boolean rulesActive = rulesActive(state);
 		for(int i=0; i<8; i++) {
 			if(state.getCurrentPieces()[i] == null
 					|| !state.getCurrentPieces()[i].equals(piece)) continue;
 			for(Direction dir : Direction.values()) {
-				for(int reach=0; reach<state.getCurrentPieces()[i].getType().getMoves(); reach++) {
-					if(isMovePossible(state, piece, 
-							Move.calcEndX(piece.getX(), dir, reach+1), 
-							Move.calcEndY(piece.getY(), dir, reach+1),
-							dir, reach+1)) {
-						moves.add(new Move(state.getCurrentPieces()[i], dir, reach+1));
-					} else {
-						continue;
-					}
+				int reach = reach(state, piece, dir.ordinal());
+				for(int fields=1; fields<=reach; fields++) {
+					if(rulesActive && ruleViolated(state, piece, 
+							Move.calcEndX(piece.getX(), dir, fields), 
+							Move.calcEndY(piece.getY(), dir, fields))) continue;
+					moves.add(new Move(state.getCurrentPieces()[i], dir, fields));
 				}
 			}
 		}
@@ -425,74 +549,143 @@ public class Utils {
 	/**
 	 * Checks if any Move is possible in gameState.
 	 * Use this Method for anything related to possible Move checks, rather than {@link #getAllPossibleMoves(GameState)}.
+	 * The result is cached in state, see {@link #terminalInfo(GameState)}.
 	 * @return false if no Move is possible in gameState
 	 */
 	public static boolean anyMovePossible(GameState state) {
+		return anyMovePossible(state, state.getTeam());
+	}
+
+	/**
+	 * {@link #anyMovePossible(GameState)} for team, even if team is not on turn.
+	 * @param state
+	 * @param team true for red
+	 * @return false if team can not move in state
+	 */
+	public static boolean anyMovePossible(GameState state, boolean team) {
+		return (terminalInfo(state) & (team ? RED_STUCK : BLUE_STUCK)) == 0;
+	}
+
+	/**
+	 * Checks the movers of team on the {@link Bitboard}s of state, 
+	 * the Pieces only get checked one by one if a repetition rule could apply.
+	 * @param state
+	 * @param team true for red
+	 * @param movers Bitboard of all Pieces of team that can move
+	 * @return false if no Move of team is possible
+	 */
+	private static boolean anyMovePossible(GameState state, boolean team, long movers) {
+		long free = ~(state.getTeamBoard(team) | Bitboard.LAKES);
+		if((Bitboard.neighbors(movers) & free) == 0)
+			return false;
+		if(!rulesActive(state, team))
+			return true;
+
+		Piece[] pieces = state.getPieces()[team ? 0 : 1];
 		for(int i=0; i<7; i++) {
-			if(state.getCurrentPieces()[i] == null) continue;
-			for(Direction dir : Direction.values()) {
-				Piece piece = state.getCurrentPieces()[i];
-				if(isMovePossible(state, piece, 
-						Move.calcEndX(piece.getX(), dir, 1), 
-						Move.calcEndY(piece.getY(), dir, 1),
-						dir, 1)) {
-					return true;
+			Piece piece = pieces[i];
+			if(piece == null) continue;
+			for(int direction=0; direction<4; direction++) {
+				int reach = reach(state, piece, direction);
+				// a scout can be forbidden to step next to it but still be allowed to move further
+				for(int fields=1; fields<=reach; fields++) {
+					byte end = Bitboard.toByte(Bitboard.step(Bitboard.square(piece.getPos()), direction, fields));
+					if(!ruleViolated(state, piece, ByteMapper.getX(end), ByteMapper.getY(end)))
+						return true;
 				}
 			}
 		}
 		return false;
 	}
 
+	/*
+	 * Bits of terminalInfo, the end of game conditions of both teams
+	 */
+	private static final int RED_FLAG_GONE = 1;
+	private static final int BLUE_FLAG_GONE = 1 << 1;
+	private static final int RED_PIECES_GONE = 1 << 2;
+	private static final int BLUE_PIECES_GONE = 1 << 3;
+	private static final int RED_STUCK = 1 << 4;
+	private static final int BLUE_STUCK = 1 << 5;
+
+	/**
+	 * Collects the end of game conditions of both teams in one pass over the Pieces.
+	 * Does not alter state, so it is safe to call from multiple threads sharing state.
+	 * The result gets cached in state for its current {@link GameState#getHash()}, repeated calls are O(1).
+	 * @param state
+	 * @return bitmap of flag gone, pieces gone and no Move possible, for red and blue
+	 */
+	private static int terminalInfo(GameState state) {
+		int info = state.getCachedTerminalInfo();
+		if(info >= 0)
+			return info;
+
+		info = 0;
+		long redMovers = 0;
+		long blueMovers = 0;
+		for(int i=0; i<7; i++) {
+			Piece red = state.getRedPieces()[i];
+			if(red != null && red.getType().getMoves() > 0)
+				redMovers |= Bitboard.bit(red.getPos());
+			Piece blue = state.getBluePieces()[i];
+			if(blue != null && blue.getType().getMoves() > 0)
+				blueMovers |= Bitboard.bit(blue.getPos());
+		}
+		if(flagGoneCheck(state.getRedPieces())) info |= RED_FLAG_GONE;
+		if(flagGoneCheck(state.getBluePieces())) info |= BLUE_FLAG_GONE;
+		if(piecesGoneCheck(state.getRedPieces())) info |= RED_PIECES_GONE;
+		if(piecesGoneCheck(state.getBluePieces())) info |= BLUE_PIECES_GONE;
+		if(!anyMovePossible(state, true, redMovers)) info |= RED_STUCK;
+		if(!anyMovePossible(state, false, blueMovers)) info |= BLUE_STUCK;
+
+		state.cacheTerminalInfo(info);
+		return info;
+	}
+
 	/**
 	 * Relies on the Fag being [9] in the Pieces array. 
-	 * Also relies on Bombs being [8] and [7] in the array
+	 * Also relies on Bombs being [8] and [7] in the array.
+	 * Does not alter gameState and is cached, see {@link #terminalInfo(GameState)}.
 	 * @param gameState
 	 * @return
 	 */
 	public static boolean isGameOver(GameState gameState) {
-		Piece[] pieces = gameState.getCurrentPieces();
-		return flagGoneCheck(pieces) || piecesGoneCheck(pieces) || !anyMovePossible(gameState);
+		int info = terminalInfo(gameState);
+		if(gameState.getTeam())
+			return (info & (RED_FLAG_GONE | RED_PIECES_GONE | RED_STUCK)) != 0;
+		else
+			return (info & (BLUE_FLAG_GONE | BLUE_PIECES_GONE | BLUE_STUCK)) != 0;
 	}
 
 	/**
 	 * Returns the winner, in case there is one.
 	 * More sophisticated check than {@link #isGameOver(GameState)}, supports draw.
+	 * Does not alter gameState and is cached, see {@link #terminalInfo(GameState)}.
 	 * @param gameState to check
 	 * @return 0: red wins, 1: blue wins, 2: draw, 3: game is not over
 	 */
 	public static int getWinner(GameState gameState) {
-		if(flagGoneCheck(gameState.getRedPieces()))			//flag gone check red and blue
+		int info = terminalInfo(gameState);
+		if((info & RED_FLAG_GONE) != 0)			//flag gone check red and blue
 			return 1;
-		else if(flagGoneCheck(gameState.getBluePieces()))
+		else if((info & BLUE_FLAG_GONE) != 0)
 			return 0;
 
-		if(piecesGoneCheck(gameState.getRedPieces()))		//pieces gone check red + draw check
-			if(piecesGoneCheck(gameState.getBluePieces()))
-				return 2;
-			else
-				return 1;
-
-		if(piecesGoneCheck(gameState.getBluePieces()))		//pieces gone check blue + draw check
-			if(piecesGoneCheck(gameState.getRedPieces()))
-				return 2;
-			else
-				return 0;
+		if((info & RED_PIECES_GONE) != 0)		//pieces gone check red + draw check
+			return (info & BLUE_PIECES_GONE) != 0 ? 2 : 1;
+		if((info & BLUE_PIECES_GONE) != 0)		//pieces gone check blue
+			return 0;
 
-		if(!anyMovePossible(gameState)) {
-			gameState.changeTeam();
-			if(!anyMovePossible(gameState)) {
-				gameState.changeTeam();
+		boolean team = gameState.getTeam();
+		if((info & (team ? RED_STUCK : BLUE_STUCK)) != 0) {
+			if((info & (team ? BLUE_STUCK : RED_STUCK)) != 0)
 				return 2;
-			}
-			gameState.changeTeam();
-			return gameState.getTeam() ? 1 : 0;
+			return team ? 1 : 0;
 		}
 
 		return 3;
 	}
 
-
-
 	/**
 	 * Checks if all Pieces are gone from one teams pieces
 	 * @implSpec only checks pieces[9], the Flag should be located there
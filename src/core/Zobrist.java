@@ -0,0 +1,92 @@
+package core;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for the 64 bit Zobrist hash of a {@link GameState}.
+ * A GameState key is the XOR of the keys of everything it contains,
+ * so a single change can be applied or taken back by XORing its key again.
+ * The keys are generated from a fixed seed and are the same on every run.
+ */
+public class Zobrist {
+	/**
+	 * Keys per team (0 red, 1 blue), PieceType byte, known (0 unknown, 1 known) and {@link Bitboard} square
+	 */
+	private static final long[][][][] PIECES = new long[2][8][2][64];
+	/**
+	 * Gets XORed in while blue is on turn
+	 */
+	public static final long BLUE_TO_MOVE;
+	private static final long[] CHASE_AND_REPETITIONS = new long[256];
+	private static final long RED_REPETITION_FIELDS_SEED;
+	private static final long BLUE_REPETITION_FIELDS_SEED;
+	private static final long CHASED_FIELD_SEED;
+
+	static {
+		SplittableRandom random = new SplittableRandom(0x5742_A7E6_05L);
+		for(long[][][] team : PIECES)
+			for(long[][] type : team)
+				for(long[] known : type)
+					for(int square=0; square<64; square++)
+						known[square] = random.nextLong();
+		BLUE_TO_MOVE = random.nextLong();
+		for(int i=0; i<CHASE_AND_REPETITIONS.length; i++)
+			CHASE_AND_REPETITIONS[i] = random.nextLong();
+		RED_REPETITION_FIELDS_SEED = random.nextLong();
+		BLUE_REPETITION_FIELDS_SEED = random.nextLong();
+		CHASED_FIELD_SEED = random.nextLong();
+	}
+
+	/**
+	 * @param piece
+	 * @return key of piece on its current position, with its current known state
+	 */
+	public static long piece(Piece piece) {
+		return piece(piece, piece.getPos());
+	}
+
+	/**
+	 * @param piece
+	 * @param pos ByteMapper position to get the key for
+	 * @return key of piece on pos, with its current known state
+	 */
+	public static long piece(Piece piece, byte pos) {
+		return PIECES[piece.getTeam() ? 0 : 1][piece.getType().getByte()][piece.getKnown() ? 1 : 0][Bitboard.square(pos)];
+	}
+
+	/**
+	 * @param chaseAndRepetitions see {@link GameState#getChaseAndRepetitions()}
+	 * @return key of the chase and repetition byte
+	 */
+	public static long chaseAndRepetitions(int chaseAndRepetitions) {
+		return CHASE_AND_REPETITIONS[chaseAndRepetitions & 0xFF];
+	}
+
+	/**
+	 * @param team true for red
+	 * @param repetitionFields see {@link GameState#getRepetitionRedFields()}
+	 * @return key of the repetition fields of team
+	 */
+	public static long repetitionFields(boolean team, short repetitionFields) {
+		return repetitionFields == 0 ? 0 : mix((team ? RED_REPETITION_FIELDS_SEED : BLUE_REPETITION_FIELDS_SEED) + repetitionFields);
+	}
+
+	/**
+	 * @param chasedField one entry of {@link GameState#getChasedFields()}
+	 * @return key of chasedField
+	 */
+	public static long chasedField(short chasedField) {
+		return mix(CHASED_FIELD_SEED + chasedField);
+	}
+
+	/**
+	 * Finalizer of SplitMix64, used for the short keyed values that have too many possible values for a table
+	 * @param z
+	 * @return well mixed z
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
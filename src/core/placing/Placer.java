@@ -2,6 +2,7 @@ package core.placing;
 
 import java.util.SplittableRandom;
 
+import core.EngineContext;
 import core.Piece;
 import core.PieceType;
 import core.placing.barrage.HeuristicBarrage;
@@ -28,7 +29,7 @@ public abstract class Placer {
 	public Piece[] pieces;
 
 	public Placer(boolean team) {
-		random = new SplittableRandom();
+		random = EngineContext.current().getRandom().split();
 		this.team = team;
 		pieces = createPieceArray(team);
 	}
@@ -25,6 +25,19 @@ public abstract class AI extends Utils {
 		gameState = guesser.converge(team);
 		setArraysAndGameState(gameState);
 	};
+
+	/**
+	 * Shares team, Guesser and GameState of ai without guessing again.
+	 * @param ai AI to share with
+	 */
+	protected AI(AI ai) {
+		team = ai.team;
+		guesser = ai.guesser;
+		lastMove = ai.lastMove;
+		myPieces = ai.myPieces;
+		enemyPieces = ai.enemyPieces;
+		gameState = ai.gameState;
+	}
 	
 	public boolean getTeam() {
 		return team;
@@ -8,9 +8,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SplittableRandom;
 import java.util.stream.DoubleStream;
 import java.util.stream.Stream;
 
+import core.EngineContext;
 import core.GameState;
 import core.Move;
 import core.Piece;
@@ -219,6 +221,87 @@ public class Guesser {
 		return cloneWithEverythingElse;
 	}
 
+	/**
+	 * Samples one possible GameState without PieceType.UNKNOWN from the rank probabilities.
+	 * Unlike {@link #converge(boolean)} every call can return another assignment, a rank is drawn for every unknown Piece
+	 * proportional to its probability among the ranks with Pieces left to assign.
+	 * @param myTeam the team which won't get sampled but taken from {@link #currentState}
+	 * @return GameState with sampled ranks
+	 */
+	public GameState sample(boolean myTeam) {
+		GameState cloneWithPieces = sampleStartState(!myTeam ? 1 : 2);
+		mapStartToCurrent(cloneWithPieces);
+		GameState cloneWithEverythingElse = currentState.clone();
+		cloneWithEverythingElse.setPiecesAndField(cloneWithPieces.getPieces(), cloneWithPieces.getField());
+		return cloneWithEverythingElse;
+	}
+
+	/**
+	 * Samples the Pieces in a clone of {@link #startState} and returns it.
+	 * Known Pieces keep their rank, the unknown ones get sampled in random order.
+	 * @param notSampledTeam 1: team red wont be sampled; 2: team blue wont be sampled; 0 both teams will be sampled
+	 * @return sampled clone of {@link #startState}
+	 */
+	public GameState sampleStartState(int notSampledTeam) {
+		GameState clone = startState.clone();
+		SplittableRandom random = EngineContext.current().getRandom();
+
+		for(int teamIndex=notSampledTeam==2 ? 1 : 0; teamIndex<(notSampledTeam==1 ? 1 : 2); teamIndex++) {
+			Map<Piece, double[]> currentTeamProbabilities = (teamIndex == 0) ? redPieces : bluePieces;
+			int[] remaining = new int[RANKS.length];
+			for(int rank=0; rank<RANKS.length; rank++)
+				remaining[rank] = RANKS[rank].getPieceCount();
+
+			List<Piece> unassignedPieces = new ArrayList<>();
+			for(Piece piece : clone.getPieces()[teamIndex]) {
+				if(piece == null)
+					continue;
+				int known = piece.getKnown() ? rankIndex(piece.getType()) : -1;
+				if(known >= 0 && remaining[known] > 0)
+					remaining[known]--;
+				else
+					unassignedPieces.add(piece);
+			}
+
+			for(int i=unassignedPieces.size(); i>0; i--) {
+				Piece piece = unassignedPieces.remove(random.nextInt(i));
+				double[] probabilities = currentTeamProbabilities.get(startState.inspect(piece.getX(), piece.getY()));
+
+				double sum = 0;
+				for(int rank=0; rank<RANKS.length; rank++)
+					if(remaining[rank] > 0)
+						sum += probabilities[rank];
+
+				int sampled = -1;
+				if(sum > 0) {
+					double r = random.nextDouble() * sum;
+					for(int rank=0; rank<RANKS.length && sampled < 0; rank++)
+						if(remaining[rank] > 0 && (r -= probabilities[rank]) < 0)
+							sampled = rank;
+				}
+				if(sampled < 0)	// only ranks without probability left, take the first one available
+					for(int rank=0; rank<RANKS.length && sampled < 0; rank++)
+						if(remaining[rank] > 0)
+							sampled = rank;
+
+				piece.setType(RANKS[sampled].getByte());
+				remaining[sampled]--;
+			}
+		}
+		return unshuffle(clone);
+	}
+
+	/**
+	 * @param type PieceType to look up
+	 * @return index of type in {@link #RANKS}, -1 if it is not in there
+	 */
+	private int rankIndex(PieceType type) {
+		for(int rank=0; rank<RANKS.length; rank++)
+			if(RANKS[rank] == type)
+				return rank;
+		return -1;
+	}
+
 	/**
 	 * Map Piece locations in clone to their current location from {@link #currentState}
 	 * @param clone GameState to modify
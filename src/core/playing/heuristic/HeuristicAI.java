@@ -1,13 +1,12 @@
 package core.playing.heuristic;
 
-import java.util.Comparator;
-
 import core.GameState;
 import core.Move;
+import core.MoveBuffer;
+import core.PackedMove;
+import core.UndoStack;
 import core.Utils;
 import core.playing.AI;
-import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
-import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 
 public class HeuristicAI extends AI{
 	boolean useTerminalHeuristic = true;
@@ -15,6 +14,8 @@ public class HeuristicAI extends AI{
 	
 	public TerminalHeuristic terminalHeuristic;
 	public MoveHeuristic moveHeuristic;
+	private MoveBuffer moves = new MoveBuffer();
+	private UndoStack undo = new UndoStack(1);
 	
 	
 	public HeuristicAI(boolean team, GameState gameState) {
@@ -25,47 +26,29 @@ public class HeuristicAI extends AI{
 
 	@Override
 	public Move nextMove() {
-		Object2ObjectOpenHashMap<Move, Integer> evaluated = new Object2ObjectOpenHashMap<Move, Integer>();
-		ObjectArrayList<Move> moves = Utils.getAllPossibleMoves(gameState);
-		
-		for(Move move : moves) {
-			evaluated.put(move, 0);
-		}
+		Utils.generateMoves(gameState, moves);
 		
-		if(useTerminalHeuristic) {
-			for(Move move : moves) {
-				GameState executedOnCloneState = gameState.clone();
-				Move normalized = move.normalize(executedOnCloneState);
-				Utils.execute(executedOnCloneState, normalized);
-				int oldValue = evaluated.remove(move);
-				evaluated.put(move, oldValue + terminalHeuristic.evaluate(executedOnCloneState));
+		int bestMove = moves.get(0);
+		int bestScore = 0;
+		for(int i=0; i<moves.size(); i++) {
+			int move = moves.get(i);
+			int score = 0;
+			if(useTerminalHeuristic) {
+				Move candidate = PackedMove.toMove(gameState, move);
+				Utils.make(gameState, candidate, undo);
+				score += terminalHeuristic.evaluate(gameState);
+				Utils.unmake(gameState, candidate, undo);
 			}
-		}
-
-		if(useMoveHeuristic) {
-			for(Move move : moves) {
-//				System.out.println(evaluated.get(move) + " "  + moveHeuristic.evaluate(move, gameState));
-				int oldValue = evaluated.remove(move) + moveHeuristic.evaluate(move, gameState);
-				evaluated.put(move, oldValue);
-			}
-		}
-		
-		Move bestMove = moves.get(0);
-		int bestScore = evaluated.get(bestMove);
-		for(Move move : moves) {
-			if(betterThan(!getTeam(), bestScore, evaluated.get(move))) {
-				bestScore = evaluated.get(move);
+			if(useMoveHeuristic)
+				score += moveHeuristic.evaluate(move, gameState);
+			
+			if(i == 0 || betterThan(!getTeam(), bestScore, score)) {
+				bestScore = score;
 				bestMove = move;
 			}
 		}
-//		System.out.println(bestScore + " " + bestMove);
-		
-//		if(!getTeam())
-//			moves.sort(Comparator.comparingInt(evaluated::get));
-//		else 
-//			moves.sort(Comparator.comparingInt(evaluated::get).reversed());
 
-		return bestMove;
+		return PackedMove.toMove(gameState, bestMove);
 	}
 	
 	private boolean betterThan(boolean player, int bestScore, int newScore) {
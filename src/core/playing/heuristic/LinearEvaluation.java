@@ -0,0 +1,136 @@
+package core.playing.heuristic;
+
+import core.Bitboard;
+import core.GameState;
+import core.Piece;
+import core.PieceType;
+
+/**
+ * Logistic regression over a few GameState features, returns the probability that red wins.
+ * Unlike {@link TerminalHeuristic} the result is a probability, so a playout cut off early can back up a fractional result.
+ * <p>
+ * The {@link #WEIGHTS} are fitted offline to the outcomes of random playouts by {@link executable.EvaluationTrainer}.
+ * All features are red minus blue, see {@link #features(GameState, float[])}.
+ * Evaluating allocates nothing, but uses a feature buffer, every thread needs its own instance.
+ */
+public class LinearEvaluation {
+	public static final int FEATURES = 14;
+	/**
+	 * bias, team on turn, dead Marschall, General, Mineure, Spaeher, Spionin, Bomben, known Pieces, known Flagge,
+	 * Flagge defenders, Flagge attackers, Mineure near the Flagge, mobility.
+	 * Fitted on about 1.5 million GameStates of random PREBUILT, RANDOM and DEBOER games, test log loss 0.642 (0.693 for always 0.5).
+	 */
+	public static final float[] WEIGHTS = {
+			0.0248f, 0.0111f, 0.9683f, 0.6424f, 0.6145f, 0.2193f, 0.1725f, 0.2343f, 0.0403f, 0f, 0.0640f, 0.3575f, 0.4117f, 0.1012f
+	};
+
+	private final float[] weights;
+	private final float[] features = new float[FEATURES];
+
+	public LinearEvaluation() {
+		this(WEIGHTS);
+	}
+
+	/**
+	 * @param weights one weight per feature, see {@link #WEIGHTS}
+	 */
+	public LinearEvaluation(float[] weights) {
+		this.weights = weights;
+	}
+
+	/**
+	 * @param state GameState to evaluate
+	 * @return probability that red wins state, 0 or 1 if a Flagge is gone
+	 */
+	public float winProbability(GameState state) {
+		Piece[][] pieces = state.getPieces();
+		if(pieces[0][9] == null) return 0;
+		if(pieces[1][9] == null) return 1;
+
+		features(state, features);
+		return probability(weights, features);
+	}
+
+	/**
+	 * @param weights see {@link #WEIGHTS}
+	 * @param features see {@link #features(GameState, float[])}
+	 * @return logistic function of the weighted feature sum
+	 */
+	public static float probability(float[] weights, float[] features) {
+		float score = 0;
+		for(int i=0; i<FEATURES; i++)
+			score += weights[i] * features[i];
+		return (float) (1 / (1 + Math.exp(-score)));
+	}
+
+	/**
+	 * Writes the features of state into features, both Flaggen have to be alive
+	 * @param state GameState to describe
+	 * @param features array with at least {@link #FEATURES} elements
+	 */
+	public static void features(GameState state, float[] features) {
+		Piece[][] pieces = state.getPieces();
+		Piece[] red = pieces[0];
+		Piece[] blue = pieces[1];
+		long redBoard = state.getTeamBoard(true);
+		long blueBoard = state.getTeamBoard(false);
+		long mineurs = state.getTypeBoard(PieceType.MINEUR);
+		long redFlagNear = near(red[9].getPos());
+		long blueFlagNear = near(blue[9].getPos());
+
+		features[0] = 1;
+		features[1] = state.getTeam() ? 1 : -1;
+		features[2] = dead(blue, 0, 0) - dead(red, 0, 0);
+		features[3] = dead(blue, 1, 1) - dead(red, 1, 1);
+		features[4] = dead(blue, 2, 3) - dead(red, 2, 3);
+		features[5] = dead(blue, 4, 5) - dead(red, 4, 5);
+		features[6] = dead(blue, 6, 6) - dead(red, 6, 6);
+		features[7] = dead(blue, 7, 8) - dead(red, 7, 8);
+		features[8] = state.getKnownBlue() - state.getKnownRed();
+		features[9] = (blue[9].getKnown() ? 1 : 0) - (red[9].getKnown() ? 1 : 0);
+		features[10] = Long.bitCount(neighbours(Bitboard.bit(red[9].getPos())) & redBoard)
+				- Long.bitCount(neighbours(Bitboard.bit(blue[9].getPos())) & blueBoard);
+		features[11] = Long.bitCount(blueFlagNear & redBoard) - Long.bitCount(redFlagNear & blueBoard);
+		features[12] = Long.bitCount(blueFlagNear & redBoard & mineurs) - Long.bitCount(redFlagNear & blueBoard & mineurs);
+		features[13] = (mobility(state, true) - mobility(state, false)) / 10f;
+	}
+
+	/**
+	 * @return number of dead Pieces from index from to index to (inclusive)
+	 */
+	private static int dead(Piece[] pieces, int from, int to) {
+		int dead = 0;
+		for(int i=from; i<=to; i++)
+			if(pieces[i] == null)
+				dead++;
+		return dead;
+	}
+
+	/**
+	 * @param pos {@link core.ByteMapper} position
+	 * @return all squares with a manhattan distance of 1 or 2 to pos
+	 */
+	private static long near(byte pos) {
+		long bit = Bitboard.bit(pos);
+		long near = neighbours(bit);
+		return (near | neighbours(near)) & ~bit;
+	}
+
+	private static long neighbours(long board) {
+		return Bitboard.shift(board, 0) | Bitboard.shift(board, 1) | Bitboard.shift(board, 2) | Bitboard.shift(board, 3);
+	}
+
+	/**
+	 * @param team true for red
+	 * @return number of single steps the movable Pieces of team could make onto empty or enemy fields
+	 */
+	private static int mobility(GameState state, boolean team) {
+		long own = state.getTeamBoard(team);
+		long movable = own & ~state.getTypeBoard(PieceType.BOMBE) & ~state.getTypeBoard(PieceType.FLAGGE);
+		long targets = ~own & ~Bitboard.LAKES;
+		int mobility = 0;
+		for(int direction=0; direction<4; direction++)
+			mobility += Long.bitCount(Bitboard.shift(movable, direction) & targets);
+		return mobility;
+	}
+}
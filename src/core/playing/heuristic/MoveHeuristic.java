@@ -4,6 +4,8 @@ import core.ByteMapper;
 import core.Direction;
 import core.GameState;
 import core.Move;
+import core.MoveBuffer;
+import core.PackedMove;
 import core.Piece;
 import core.PieceType;
 import core.playing.guesser.Guesser;
@@ -48,28 +50,63 @@ public class MoveHeuristic {
 		return moves.get(0);
 	}
 
+	/**
+	 * Returns the best {@link PackedMove} on GameState from a buffer of moves
+	 * @param moves buffer filled by {@link core.Utils#generateMoves(GameState, MoveBuffer)}
+	 * @param state GameState moves were generated in
+	 * @return the best packed Move for the current team
+	 */
+	public int getBestMove(MoveBuffer moves, GameState state) {
+		int bestMove = moves.get(0);
+		int bestScore = evaluate(bestMove, state);
+		for(int i=1; i<moves.size(); i++) {
+			int score = evaluate(moves.get(i), state);
+			if(betterThan(!state.getTeam(), bestScore, score)) {
+				bestScore = score;
+				bestMove = moves.get(i);
+			}
+		}
+		return bestMove;
+	}
+
 	public int evaluate(Move move, GameState state) {
+		return evaluate(move.getPiece(), move.getEnd(), state);
+	}
 
+	/**
+	 * {@link #evaluate(Move, GameState)} for a {@link PackedMove}
+	 * @param move packed Move generated in state
+	 * @param state GameState
+	 * @return Move score
+	 */
+	public int evaluate(int move, GameState state) {
+		return evaluate(PackedMove.getPiece(state, move), PackedMove.getEnd(move), state);
+	}
 
+	private int evaluate(Piece piece, byte end, GameState state) {
 		int manhattenDistancePoints = (int)
 				(14 - manhattenDistance(
-						move.getEndX(), 
-						move.getEndY(), 
-						state.getPieces()[move.getPiece().getTeam() ? 1 : 0][9].getPos()));
+						ByteMapper.getX(end), 
+						ByteMapper.getY(end), 
+						state.getPieces()[piece.getTeam() ? 1 : 0][9].getPos()));
 
 		if(useTargetCheck)
-			manhattenDistancePoints *= moveFieldSafety(move, state.inspect(move.getEndX(), move.getEndY()));
+			manhattenDistancePoints *= moveFieldSafety(piece, state.inspect(ByteMapper.getX(end), ByteMapper.getY(end)));
 		if(useTargetNeighborCheck)
-			manhattenDistancePoints *= moveNeighborSafety(move, state);
+			manhattenDistancePoints *= moveNeighborSafety(piece, end, state);
 
 
-		return (move.getPiece().getTeam() ? -1 : 1) * (int)(manhattenDistancePoints);
+		return (piece.getTeam() ? -1 : 1) * (int)(manhattenDistancePoints);
 	}
 
 	public double moveFieldSafety(Move move, Piece moveTo) {
+		return moveFieldSafety(move.getPiece(), moveTo);
+	}
+
+	private double moveFieldSafety(Piece piece, Piece moveTo) {
 		double safetyMult = 1F;
 		if(moveTo != null) {
-			if(move.getPiece().attack(moveTo) == moveTo)
+			if(piece.attack(moveTo) == moveTo)
 				if(useTargetUncertainty)
 					safetyMult *= 1 + certainty(moveTo);	
 				else
@@ -84,18 +121,32 @@ public class MoveHeuristic {
 	}
 
 	public double moveNeighborSafety(Move move, GameState state) {
+		return moveNeighborSafety(move.getPiece(), move.getEnd(), state);
+	}
+
+	/**
+	 * {@link #moveNeighborSafety(Move, GameState)} for a {@link PackedMove}
+	 * @param move packed Move generated in state
+	 * @param state GameState
+	 * @return neighbor safety of the Moves target field
+	 */
+	public double moveNeighborSafety(int move, GameState state) {
+		return moveNeighborSafety(PackedMove.getPiece(state, move), PackedMove.getEnd(move), state);
+	}
+
+	private double moveNeighborSafety(Piece piece, byte end, GameState state) {
 		double stronger = 1;
 		double weaker = 1;
 		for(Direction dir : Direction.values()) {
-			byte dirPos = dir.translate(move.getEnd(), 1);
+			byte dirPos = dir.translate(end, 1);
 			int x = ByteMapper.getX(dirPos);
 			int y = ByteMapper.getY(dirPos);
 			if(x<0 || x>7 || y<0 || y>7) continue;
 
 			Piece attacker = state.inspect(x, y);
 
-			if(attacker != null && attacker != move.getPiece()) {
-				if(move.getPiece().attack(attacker) == attacker)
+			if(attacker != null && attacker != piece) {
+				if(piece.attack(attacker) == attacker)
 					if(useNeighborUncertainty)
 						weaker *= 1+certainty(attacker);	
 					else
@@ -5,4 +5,12 @@ public class Constants {
 	public static final int TIME_IN_MS = 1_000;
 	public static final int MAX_STEPS = 600;
 	public static final int MAX_SIMULATIONS = Integer.MAX_VALUE;
+	public static final int POOL_NODES = 1 << 20;
+	public static final int TRANSPOSITION_ENTRIES = 1 << 20;
+	public static final float WIDENING_FACTOR = 2f;
+	public static final float WIDENING_EXPONENT = 0.5f;
+	public static final float RAVE_EQUIVALENCE = 300f;
+	public static final float PLAYOUT_EPSILON = 0.1f;
+	public static final int CUTOFF_STEPS = 40;
+	public static final int PONDER_MAX_MS = 60_000;
 }
@@ -0,0 +1,168 @@
+package core.playing.mcts;
+
+import core.EngineContext;
+import core.GameState;
+import core.Move;
+import core.MoveBuffer;
+import core.PackedMove;
+import core.Utils;
+import core.playing.random.RandomAI;
+
+/**
+ * Information set MCTS (single observer).
+ * {@link MCTS} searches the one GameState {@link core.playing.guesser.Guesser#converge(boolean)} guessed as if it was certain.
+ * This search samples a new determinization with {@link core.playing.guesser.Guesser#sample(boolean)} in every iteration
+ * and descends one shared tree of {@link InformationSetNode}s, only Moves legal in the sampled GameState get selected or expanded.
+ * The search time is spread over all GameStates the Guesser thinks possible instead of a single guess.
+ * Playouts and heuristics are the same as in {@link MCTS}.
+ */
+public class ISMCTS extends MCTS {
+	private final MoveBuffer moves = new MoveBuffer();
+	private InformationSetNode informationSetRoot;
+
+	public ISMCTS(boolean team, GameState gameState, String ... guesserProbs) {
+		super(team, gameState, guesserProbs);
+	}
+
+	@Override
+	Move searchMove(long end) {
+		startSearch();
+		while(System.currentTimeMillis() < end && simulationCounter + heuristicCounter < Constants.MAX_SIMULATIONS)
+			iterate(guesser.sample(getTeam()));
+
+		InformationSetNode best = bestRootChild();
+		Move move = best == null ? null : toMove(gameState, best.getMoveKey());
+		if(move == null) {
+			System.err.println("MCTS Warning: No best child found. Picking random valid move.");
+			return RandomAI.nextMove(gameState);
+		}
+		if(printResultsToConsole)
+			System.out.println("ISMCTS, Simulationen: " + (simulationCounter + heuristicCounter)
+					+ ", Besuche: " + best.getVisits() + ", Move: " + move);
+		return move;
+	}
+
+	/**
+	 * Searches for a fixed number of iterations, ignores the time limit.
+	 * @param iterations number of determinize, select, expand, simulate and backpropagate steps
+	 * @return the root of the searched tree
+	 */
+	public InformationSetNode searchTree(int iterations) {
+		startSearch();
+		for(int i=0; i<iterations; i++)
+			iterate(guesser.sample(getTeam()));
+		return informationSetRoot;
+	}
+
+	private void startSearch() {
+		heuristicCounter = 0;
+		expansionCounter = 0;
+		simulationCounter = 0;
+		informationSetRoot = new InformationSetNode();
+	}
+
+	/**
+	 * One select, expand, simulate and backpropagate step in the determinization world.
+	 * @param world sampled GameState, gets changed
+	 */
+	void iterate(GameState world) {
+		InformationSetNode node = informationSetRoot;
+		int depth = 0;
+		while(depth++ < maxSteps && !Utils.isGameOver(world)) {
+			Utils.generateMoves(world, moves);
+			if(moves.size() == 0)
+				break;
+
+			int untried = pickUntried(node);
+			if(untried >= 0) {
+				expansionCounter++;
+				node = node.addChild(InformationSetNode.key(moves.get(untried)), world.getTeam());
+				node.markAvailable();
+				Utils.execute(world, PackedMove.toMove(world, moves.get(untried)));
+				break;
+			}
+			int selected = select(node);
+			node = node.getChild(InformationSetNode.key(moves.get(selected)));
+			Utils.execute(world, PackedMove.toMove(world, moves.get(selected)));
+		}
+
+		float redWinValue = simulate(world, 0);
+		for(; node != null; node = node.getParent())
+			node.update(redWinValue);
+	}
+
+	/**
+	 * Marks the children of all legal Moves as available, on expansion steps as well as on selection steps.
+	 * @param node node of the current GameState, {@link #moves} holds its legal Moves
+	 * @return index of a random Move in {@link #moves} without a child of node, -1 if all Moves have one
+	 */
+	private int pickUntried(InformationSetNode node) {
+		int picked = -1;
+		int untried = 0;
+		for(int i=0; i<moves.size(); i++) {
+			InformationSetNode child = node.getChild(InformationSetNode.key(moves.get(i)));
+			if(child != null)
+				child.markAvailable();
+			else if(EngineContext.current().getRandom().nextInt(++untried) == 0)
+				picked = i;
+		}
+		return picked;
+	}
+
+	/**
+	 * Picks the child with the best UCB value, {@link #pickUntried(InformationSetNode)} marked them available.
+	 * @param node node of the current GameState, every Move in {@link #moves} has a child
+	 * @return index of the picked Move in {@link #moves}
+	 */
+	private int select(InformationSetNode node) {
+		int best = 0;
+		double bestValue = Double.NEGATIVE_INFINITY;
+		for(int i=0; i<moves.size(); i++) {
+			InformationSetNode child = node.getChild(InformationSetNode.key(moves.get(i)));
+			double value = child.getUCB(C);
+			if(value > bestValue) {
+				bestValue = value;
+				best = i;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @return the most visited child of the root, null if there is none
+	 */
+	InformationSetNode bestRootChild() {
+		InformationSetNode best = null;
+		for(InformationSetNode child : informationSetRoot.getChildren())
+			if(best == null || child.getVisits() > best.getVisits())
+				best = child;
+		return best;
+	}
+
+	/**
+	 * @param state GameState to find the Move in
+	 * @param moveKey see {@link InformationSetNode#key(int)}
+	 * @return the legal Move of state with the start and end field of moveKey, null if there is none
+	 */
+	private Move toMove(GameState state, int moveKey) {
+		Utils.generateMoves(state, moves);
+		for(int i=0; i<moves.size(); i++)
+			if(InformationSetNode.key(moves.get(i)) == moveKey)
+				return PackedMove.toMove(state, moves.get(i));
+		return null;
+	}
+
+	public InformationSetNode getInformationSetRoot() {
+		return informationSetRoot;
+	}
+
+	@Override
+	boolean rootTeam() {
+		return gameState.getTeam();
+	}
+
+	@Override
+	boolean searchesTreeNodes() {
+		return false;
+	}
+}
@@ -0,0 +1,127 @@
+package core.playing.mcts;
+
+import java.util.ArrayList;
+
+import core.PackedMove;
+
+/**
+ * Node of the {@link ISMCTS} tree.
+ * A node stands for all GameStates the searching team can not tell apart, so it is identified by the Moves that lead to it
+ * and not by a GameState. Moves are compared by their start and end field, which are the same in every determinization.
+ */
+public class InformationSetNode {
+	private final InformationSetNode parent;
+	private final ArrayList<InformationSetNode> children = new ArrayList<InformationSetNode>();
+	/**
+	 * start and end field of the Move that led to this node, see {@link #key(int)}
+	 */
+	private final int moveKey;
+	/**
+	 * Team that made the Move that led to this node, true for red
+	 */
+	private final boolean team;
+	private int visits;
+	/**
+	 * Wins of {@link #team} in the simulations through this node, fractional for cut off playouts
+	 */
+	private float wins;
+	/**
+	 * Number of visits of the parent in which the Move of this node was legal, counted from the visit that added this node
+	 */
+	private int availability;
+
+	/**
+	 * Creates a root node
+	 */
+	public InformationSetNode() {
+		this(null, -1, false);
+	}
+
+	private InformationSetNode(InformationSetNode parent, int moveKey, boolean team) {
+		this.parent = parent;
+		this.moveKey = moveKey;
+		this.team = team;
+	}
+
+	/**
+	 * @param move {@link PackedMove}
+	 * @return start and end field of move as {@link core.ByteMapper} bytes, the same for equal Moves in different determinizations
+	 */
+	public static int key(int move) {
+		return move & 0xFFFF;
+	}
+
+	/**
+	 * @param moveKey see {@link #key(int)}
+	 * @return the child reached by moveKey, null if it is not expanded
+	 */
+	public InformationSetNode getChild(int moveKey) {
+		for(InformationSetNode child : children)
+			if(child.moveKey == moveKey)
+				return child;
+		return null;
+	}
+
+	/**
+	 * Adds a child for moveKey
+	 * @param moveKey see {@link #key(int)}
+	 * @param team team that makes the Move
+	 * @return the new child
+	 */
+	public InformationSetNode addChild(int moveKey, boolean team) {
+		InformationSetNode child = new InformationSetNode(this, moveKey, team);
+		children.add(child);
+		return child;
+	}
+
+	/**
+	 * UCB1 with the availability count instead of the parents visits,
+	 * Moves that are legal in few determinizations are not explored more than the others.
+	 * @param C exploration constant
+	 * @return UCB value of this node
+	 */
+	public double getUCB(float C) {
+		return (double) wins / visits + C * Math.sqrt(Math.log(availability) / visits);
+	}
+
+	/**
+	 * Adds the result of one simulation through this node
+	 * @param redWinValue 1 if red won the simulation, 0 if blue won, the win probability of red for a cut off playout
+	 */
+	public void update(float redWinValue) {
+		visits++;
+		wins += team ? redWinValue : 1 - redWinValue;
+	}
+
+	public void markAvailable() {
+		availability++;
+	}
+
+	public InformationSetNode getParent() {
+		return parent;
+	}
+
+	public ArrayList<InformationSetNode> getChildren() {
+		return children;
+	}
+
+	public int getMoveKey() {
+		return moveKey;
+	}
+
+	public boolean getTeam() {
+		return team;
+	}
+
+	public int getVisits() {
+		return visits;
+	}
+
+	public float getWins() {
+		return wins;
+	}
+
+	public int getAvailability() {
+		return availability;
+	}
+}
@@ -2,19 +2,32 @@ package core.playing.mcts;
 
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
+import core.ByteMapper;
+import core.EngineContext;
 import core.GameState;
 import core.Move;
+import core.MoveBuffer;
+import core.PackedMove;
 import core.Utils;
 import core.playing.AI;
+import core.playing.AI.AIInformer;
+import core.playing.heuristic.LinearEvaluation;
 import core.playing.heuristic.MoveHeuristic;
 import core.playing.heuristic.TerminalHeuristic;
 import core.playing.random.RandomAI;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 
 
 public class MCTS extends AI {
-	protected static final SplittableRandom rand = new SplittableRandom();
 	public TreeNode root;
 	public TerminalHeuristic terminalHeuristic;
 	public MoveHeuristic moveHeuristic;
@@ -32,6 +45,74 @@ public class MCTS extends AI {
 	boolean useCommonPlayout = true;
 	float C = Constants.C;
 	int maxSteps = Constants.MAX_STEPS;
+	int timeInMs = Constants.TIME_IN_MS;
+	/**
+	 * System.nanoTime() at which running playouts get cut off and evaluated by the {@link #terminalHeuristic}, set by {@link #startClock()}
+	 */
+	volatile long deadline = Long.MAX_VALUE;
+	/**
+	 * Number of independent trees searched in parallel by {@link #rootParallelMove(long)}, 1 searches on the calling thread only
+	 */
+	int rootWorkers = 1;
+	/**
+	 * Number of threads searching one shared tree, see {@link #treeParallelSearch(long)}
+	 */
+	int treeWorkers = 1;
+	/**
+	 * Number of sampled enemy setups searched in parallel by {@link #ensembleMove(long)}, 1 searches the converged guess only
+	 */
+	int ensembleWorlds = 1;
+	/**
+	 * Continue the search in the subtree of the last search that matches {@link #gameState}, see {@link #reusableRoot()}
+	 */
+	boolean reuseTree = true;
+	/**
+	 * Pick the root Move by Sequential Halving instead of UCT at the root, see {@link #sequentialHalving(long, int)}
+	 */
+	boolean useSequentialHalving = false;
+	/**
+	 * Prove wins and losses in the tree and skip proven subtrees, see {@link TreeNode#solve()}
+	 */
+	boolean useSolver = false;
+	/**
+	 * Limit the children of a node by its visits and expand them ordered by {@link TreeNode#prior(GameState, int)}, see {@link TreeNode#isWidened(float, float)}
+	 */
+	boolean useProgressiveWidening = false;
+	float wideningFactor = Constants.WIDENING_FACTOR;
+	float wideningExponent = Constants.WIDENING_EXPONENT;
+	/**
+	 * RAVE equivalence parameter, see {@link TreeNode#backpropagate(float, float, float)}, 0 disables RAVE
+	 */
+	float raveEquivalence = 0;
+	/**
+	 * Moves of the last simulation for RAVE, raveSeen[key] == raveStamp if the Move with {@link #raveKey(boolean, byte, byte)} key was played
+	 */
+	private int[] raveSeen;
+	private int raveStamp;
+	/**
+	 * Learned playout Moves, null plays the configured playout, see {@link #usePlayoutPolicy(float)}
+	 */
+	PlayoutPolicy playoutPolicy;
+	/**
+	 * Cuts playouts off after {@link #cutoffSteps} and backs up its win probability, null plays out up to {@link #maxSteps}
+	 */
+	LinearEvaluation evaluation;
+	int cutoffSteps = Constants.CUTOFF_STEPS;
+	/**
+	 * Per Move budgets from a game clock, null searches {@link Constants#TIME_IN_MS} per Move
+	 */
+	TimeManager timeManager;
+	/**
+	 * Search on a background thread while the opponent is on turn, see {@link #startPondering()}
+	 */
+	boolean ponder = false;
+	/**
+	 * Node searched while pondering, the GameState after our last Move
+	 */
+	private TreeNode ponderRoot;
+	private Future<?> ponderTask;
+	private volatile boolean stopPonder;
+	private ExecutorService workerPool;
 
 	public MCTS(boolean team, GameState gameState, String ... guesserProbs) {
 		super(team, gameState, guesserProbs);
@@ -46,34 +127,119 @@ public class MCTS extends AI {
 		moveHeuristic = new MoveHeuristic(guesser);
 	}
 
+	/**
+	 * Worker constructor for root parallel search.
+	 * Shares Guesser, GameState, heuristics and configuration of mcts, but searches its own tree.
+	 * @param mcts MCTS to work for
+	 */
+	private MCTS(MCTS mcts) {
+		super(mcts);
+		terminalHeuristic = mcts.terminalHeuristic;
+		moveHeuristic = mcts.moveHeuristic;
+		enableBestChildNoLoops = mcts.enableBestChildNoLoops;
+		useExpandHeuristic = mcts.useExpandHeuristic;
+		useHeavyPlayout = mcts.useHeavyPlayout;
+		useHybridPlayout = mcts.useHybridPlayout;
+		useCommonPlayout = mcts.useCommonPlayout;
+		C = mcts.C;
+		maxSteps = mcts.maxSteps;
+		timeInMs = mcts.timeInMs;
+		deadline = mcts.deadline;
+		useProgressiveWidening = mcts.useProgressiveWidening;
+		wideningFactor = mcts.wideningFactor;
+		wideningExponent = mcts.wideningExponent;
+		raveEquivalence = mcts.raveEquivalence;
+		useSolver = mcts.useSolver;
+		if(mcts.playoutPolicy != null)
+			playoutPolicy = new PlayoutPolicy(mcts.playoutPolicy.getEpsilon());
+		if(mcts.evaluation != null)
+			evaluation = new LinearEvaluation();
+		cutoffSteps = mcts.cutoffSteps;
+	}
+
 	@Override
 	public Move nextMove() {
-		//		if(Mediator.stateGame != null)
-		//		gameState = Mediator.stateGame;
 		//		ui.updateBoard(gameState, lastMove);
 		//		ui.setTitle("MCTS perspective " + (getTeam() ? " Red" : " Blue"));
 
+		stopPondering();
 		this.heuristicCounter = 0;
 		this.expansionCounter = 0;
 		this.simulationCounter = 0;
 
-		long start = System.currentTimeMillis();
-		long end = start + Constants.TIME_IN_MS;
+		long end = startClock();
+		if(timeManager != null) {
+			MoveBuffer moves = EngineContext.current().getMoveBuffer();
+			end = timeManager.startMove(gameState, Utils.generateMoves(gameState, moves));
+			if(moves.size() == 1) {
+				timeManager.endMove();
+				stopClock();
+				return PackedMove.toMove(gameState, moves.get(0));
+			}
+			startDeadline(timeManager.getHardDeadline());
+		}
 
+		Move move = searchMove(end);
+		stopClock();
+		if(timeManager != null)
+			timeManager.endMove();
+		return move;
+	}
 
-		root = new TreeNode(gameState.clone(), null, null);
+	/**
+	 * Starts the clock of a search of {@link #timeInMs}.
+	 * The search loops check the returned end between iterations, the playouts check {@link #deadline} after every Move,
+	 * so a long playout can not make the search overshoot.
+	 * @return System.currentTimeMillis() at which the search has to end
+	 */
+	long startClock() {
+		long end = System.currentTimeMillis() + timeInMs;
+		startDeadline(end);
+		return end;
+	}
 
-		while(System.currentTimeMillis() < end && simulationCounter + heuristicCounter < Constants.MAX_SIMULATIONS){
-			//Schritte des UCT abarbeiten
-			TreeNode selected = selectAndExpand(root);
-			selected.backpropagate(simulate(selected, 0), C);
-		}
+	/**
+	 * Sets the playout {@link #deadline}
+	 * @param end System.currentTimeMillis() at which playouts have to stop
+	 */
+	void startDeadline(long end) {
+		deadline = System.nanoTime() + Math.max(0, end - System.currentTimeMillis()) * 1_000_000L;
+	}
+
+	/**
+	 * Removes the playout {@link #deadline}, searches with a fixed number of iterations and pondering run without one
+	 */
+	void stopClock() {
+		deadline = Long.MAX_VALUE;
+	}
+
+	/**
+	 * Searches with the configured parallelism and returns the Move to play.
+	 * Searches on their own tree override this, {@link #nextMove()} stops pondering, resets the counters and runs the clock for all of them.
+	 * @param end System.currentTimeMillis() to stop at, the {@link #timeManager} may stop the serial search earlier or later
+	 */
+	Move searchMove(long end) {
+		if(ensembleWorlds > 1)
+			return ensembleMove(end);
+		if(rootWorkers > 1)
+			return rootParallelMove(end);
 
 		TreeNode bestChild;
-		if(enableBestChildNoLoops)
-			bestChild = bestChildNoLoops(root);
-		else
-			bestChild = bestRootChild(root);
+		if(useSequentialHalving)
+			bestChild = sequentialHalving(end, 0);
+		else {
+			if(treeWorkers > 1)
+				treeParallelSearch(end);
+			else
+				searchUntil(end);
+
+			if(enableBestChildNoLoops)
+				bestChild = bestChildNoLoops(root);
+			else
+				bestChild = bestRootChild(root);
+		}
+		if(useSolver && bestChild != null)
+			bestChild = solvedRootChild(bestChild);
 
 		if (bestChild == null || bestChild.getMoveThatLedToThisNode() == null) {
 			System.err.println("MCTS Warning: No best child found or move is null. Picking random valid move.");
@@ -82,12 +248,422 @@ public class MCTS extends AI {
 
 		if(printResultsToConsole)
 			printResults(bestChild);
-		System.gc();
 		// TODO: -XX:+UseParallelGC, funktioniert am besten in dieser Umgebung
 
 		return bestChild.getMoveThatLedToThisNode();
 	}
 
+	/**
+	 * Searches a fresh tree until end or {@link Constants#MAX_SIMULATIONS} is reached.
+	 * @param end System.currentTimeMillis() to stop at
+	 */
+	void searchUntil(long end) {
+		root = freshOrReusedRoot();
+
+		while(!searchDone(end) && simulationCounter + heuristicCounter < Constants.MAX_SIMULATIONS && !(useSolver && root.isProven())){
+			//Schritte des UCT abarbeiten
+			TreeNode selected = selectAndExpand(root);
+			backpropagate(selected, simulate(selected, 0));
+		}
+	}
+
+	/**
+	 * Sequential Halving at the root, UCT below it.
+	 * All root Moves get expanded, the budget is split into ceil(log2(root Moves)) rounds.
+	 * In every round the remaining root children are searched in turn with {@link #selectAndExpand(TreeNode)},
+	 * afterwards the half with the lower win rate gets dropped. The last remaining child is picked.
+	 * Spreads short budgets better over many root Moves than UCT does.
+	 * @param end System.currentTimeMillis() to stop at, used if iterations is 0
+	 * @param iterations number of iterations to search, 0 searches till end
+	 * @return the remaining root child, null if the root has no children
+	 */
+	TreeNode sequentialHalving(long end, int iterations) {
+		root = freshOrReusedRoot();
+		while(!root.isTerminal() && !root.isFullyExpanded()) {
+			expansionCounter++;
+			root.expand(useExpandHeuristic, moveHeuristic);
+		}
+		ArrayList<TreeNode> remaining = new ArrayList<TreeNode>(root.getChildren().values());
+		if(remaining.isEmpty())
+			return null;
+
+		int searched = 0;
+		while(remaining.size() > 1) {
+			int roundsLeft = 32 - Integer.numberOfLeadingZeros(remaining.size() - 1);
+			long roundEnd = System.currentTimeMillis() + (end - System.currentTimeMillis()) / roundsLeft;
+			int roundIterations = iterations > 0 ? (iterations - searched) / roundsLeft : Integer.MAX_VALUE;
+			for(int i=0; i<roundIterations && (iterations > 0 || System.currentTimeMillis() < roundEnd); i++) {
+				TreeNode selected = selectAndExpand(remaining.get(i % remaining.size()));
+				backpropagate(selected, simulate(selected, 0));
+				searched++;
+			}
+			remaining.sort(Comparator.comparingDouble(TreeNode::getV).reversed());
+			remaining.subList((remaining.size() + 1) / 2, remaining.size()).clear();
+		}
+		return remaining.get(0);
+	}
+
+	/**
+	 * Without {@link #timeManager} the search is done at end.
+	 * With it, every 64 iterations the two most visited root children are passed to {@link TimeManager#shouldStop(int, int, int, int)}.
+	 * @param end System.currentTimeMillis() to stop at without time manager
+	 * @return true if the serial search should stop
+	 */
+	boolean searchDone(long end) {
+		if(timeManager == null)
+			return System.currentTimeMillis() >= end;
+		if(System.nanoTime() >= deadline)
+			return true;
+		int iterations = simulationCounter + heuristicCounter;
+		if((iterations & 63) != 0)
+			return false;
+		TreeNode best = null;
+		int secondVisits = 0;
+		for(TreeNode child : root.getChildren().values()) {
+			if(best == null || child.getNK() > best.getNK()) {
+				secondVisits = best == null ? 0 : best.getNK();
+				best = child;
+			} else if(child.getNK() > secondVisits)
+				secondVisits = child.getNK();
+		}
+		if(best == null)
+			return timeManager.shouldStop(-1, 0, 0, iterations);
+		return timeManager.shouldStop(best.getPackedMove(), best.getNK(), secondVisits, iterations);
+	}
+
+	/**
+	 * @return the {@link #reusableRoot()} if tree reuse is enabled and there is one, a new root for {@link #gameState} otherwise
+	 */
+	TreeNode freshOrReusedRoot() {
+		TreeNode reused = reuseTree ? reusableRoot() : null;
+		if(reused == null && reuseTree)
+			reused = ponderedRoot();
+		ponderRoot = null;
+		return reused != null ? reused : new TreeNode(gameState.clone(), null, null);
+	}
+
+	/**
+	 * Looks for {@link #gameState} one ply below the {@link #ponderRoot}, after the opponents reply.
+	 * If the Guesser converged to other Pieces after seeing the reply, no node matches the Zobrist key and the search starts fresh,
+	 * a subtree searched with the previous guess could contain Moves the real GameState does not allow.
+	 * @return the matching node detached from the rest of the tree, null if there is none
+	 */
+	private TreeNode ponderedRoot() {
+		if(ponderRoot == null)
+			return null;
+		long hash = gameState.getHash();
+		for(TreeNode child : ponderRoot.getChildren().values())
+			if(child.getGameState().getHash() == hash) {
+				child.detach();
+				return child;
+			}
+		return null;
+	}
+
+	/**
+	 * Stops pondering, updates like {@link AI#update(AIInformer)} and starts pondering again if the opponent is on turn now.
+	 */
+	@Override
+	public void update(AIInformer informer) {
+		stopPondering();
+		super.update(informer);
+		if(ponder && gameState.getTeam() != getTeam() && !Utils.isGameOver(gameState))
+			startPondering();
+	}
+
+	/**
+	 * Searches the GameState after our Move on a background thread, till {@link #stopPondering()} or {@link Constants#PONDER_MAX_MS}.
+	 * The predicted node is the child of the last root matching {@link #gameState},
+	 * its subtree is kept and the next search continues in it, see {@link #reusableRoot()}.
+	 * If the prediction missed, pondering restarts on a new node.
+	 * The {@link #root} stays the last searched root either way, {@link #rootTeam()} is read by the pondering playouts.
+	 */
+	void startPondering() {
+		ponderRoot = null;
+		long hash = gameState.getHash();
+		for(TreeNode child : root.getChildren().values())
+			if(child.getGameState().getHash() == hash)
+				ponderRoot = child;
+		if(ponderRoot == null)
+			ponderRoot = new TreeNode(gameState.clone(), null, null);
+
+		TreeNode pondering = ponderRoot;
+		long seed = EngineContext.current().getRandom().nextLong();
+		long end = System.currentTimeMillis() + Constants.PONDER_MAX_MS;
+		stopPonder = false;
+		ponderTask = workerPool().submit(() -> {
+			EngineContext.set(new EngineContext(seed));
+			while(!stopPonder && System.currentTimeMillis() < end && !pondering.isTerminal()) {
+				TreeNode selected = selectAndExpand(pondering);
+				backpropagate(selected, simulate(selected, 0));
+			}
+		});
+	}
+
+	/**
+	 * Stops the background search of {@link #startPondering()} and waits for it
+	 * @return false if the background search ended with an exception
+	 */
+	boolean stopPondering() {
+		if(ponderTask == null)
+			return true;
+		stopPonder = true;
+		boolean completed = true;
+		try {
+			ponderTask.get();
+		} catch (InterruptedException | ExecutionException e) {
+			e.printStackTrace();
+			completed = false;
+		}
+		ponderTask = null;
+		return completed;
+	}
+
+	boolean isPondering() {
+		return ponderTask != null && !ponderTask.isDone();
+	}
+
+	/**
+	 * Looks for {@link #gameState} in the last tree: the root itself or two plies below it, after our Move and the opponents reply.
+	 * Nodes are matched by their Zobrist key, Piece indexes may differ after the Guesser shuffled them.
+	 * If the Guesser converged to different Pieces than the last time, no node matches.
+	 * @return the matching node detached from the rest of the tree, null if there is none
+	 */
+	TreeNode reusableRoot() {
+		if(root == null)
+			return null;
+		long hash = gameState.getHash();
+		if(root.getGameState().getHash() == hash)
+			return root;
+		for(TreeNode child : root.getChildren().values())
+			for(TreeNode grandchild : child.getChildren().values())
+				if(grandchild.getGameState().getHash() == hash) {
+					grandchild.detach();
+					return grandchild;
+				}
+		return null;
+	}
+
+	/**
+	 * Root parallel search, every worker grows an independent tree from the same root GameState with its own {@link EngineContext}.
+	 * The calling thread is one of the workers.
+	 * The Move with the most visits summed over all trees gets picked, the counters are summed up as well.
+	 * @param end System.currentTimeMillis() to stop at
+	 * @return the Move with the most summed root visits
+	 */
+	Move rootParallelMove(long end) {
+		Int2IntOpenHashMap visits = summedRootVisits(runWorkers(rootWorkers, worker -> worker.searchUntil(end)));
+
+		int bestMove = 0;
+		int bestVisits = -1;
+		for(Int2IntMap.Entry entry : visits.int2IntEntrySet())
+			if(entry.getIntValue() > bestVisits) {
+				bestVisits = entry.getIntValue();
+				bestMove = entry.getIntKey();
+			}
+
+		if(bestVisits < 0) {
+			System.err.println("MCTS Warning: No best child found. Picking random valid move.");
+			return RandomAI.nextMove(gameState);
+		}
+		if(printResultsToConsole)
+			System.out.println("Root parallel MCTS, " + rootWorkers + " Bäume, Simulationen: " + (simulationCounter + heuristicCounter)
+					+ ", Besuche: " + bestVisits + ", Move: " + PackedMove.toString(bestMove));
+		return PackedMove.toMove(root.getGameState(), bestMove);
+	}
+
+	/**
+	 * @param workers workers of {@link #runWorkers(int, Consumer)} after their search
+	 * @return visits of every root {@link PackedMove} summed over the trees of all workers
+	 */
+	static Int2IntOpenHashMap summedRootVisits(MCTS[] workers) {
+		Int2IntOpenHashMap visits = new Int2IntOpenHashMap();
+		for(MCTS worker : workers)
+			for(TreeNode child : worker.root.getChildren().values())
+				visits.addTo(child.getPackedMove(), child.getNK());
+		return visits;
+	}
+
+	/**
+	 * Determinized ensemble search: samples {@link #ensembleWorlds} enemy setups with {@link core.playing.guesser.Guesser#sample(boolean)}
+	 * and searches an independent tree for each of them in parallel, like {@link #rootParallelMove(long)}.
+	 * Every tree votes for the root Moves with their share of its root visits, so every sampled world has the same weight.
+	 * Moves are matched by start and end field, Piece indexes differ between the worlds.
+	 * @param end System.currentTimeMillis() to stop at
+	 * @return the Move with the highest summed vote that is legal in {@link #gameState}
+	 */
+	Move ensembleMove(long end) {
+		GameState[] worlds = new GameState[ensembleWorlds];
+		for(int i=0; i<worlds.length; i++)
+			worlds[i] = guesser.sample(getTeam());
+
+		AtomicInteger nextWorld = new AtomicInteger();
+		MCTS[] workers = runWorkers(ensembleWorlds, worker -> {
+			worker.root = new TreeNode(worlds[nextWorld.getAndIncrement()], null, null);
+			while(System.currentTimeMillis() < end && worker.simulationCounter + worker.heuristicCounter < Constants.MAX_SIMULATIONS) {
+				TreeNode selected = worker.selectAndExpand(worker.root);
+				worker.backpropagate(selected, worker.simulate(selected, 0));
+			}
+		});
+
+		double[] votes = new double[1 << 16];
+		for(MCTS worker : workers) {
+			double rootVisits = Math.max(1, worker.root.getNK());
+			for(TreeNode child : worker.root.getChildren().values())
+				votes[InformationSetNode.key(child.getPackedMove())] += child.getNK() / rootVisits;
+		}
+
+		MoveBuffer moves = EngineContext.current().getMoveBuffer();
+		Utils.generateMoves(gameState, moves);
+		int bestMove = -1;
+		double bestVote = 0;
+		for(int i=0; i<moves.size(); i++) {
+			double vote = votes[InformationSetNode.key(moves.get(i))];
+			if(vote > bestVote) {
+				bestVote = vote;
+				bestMove = moves.get(i);
+			}
+		}
+
+		if(bestMove == -1) {
+			System.err.println("MCTS Warning: No best child found. Picking random valid move.");
+			return RandomAI.nextMove(gameState);
+		}
+		if(printResultsToConsole)
+			System.out.println("Ensemble MCTS, " + ensembleWorlds + " Welten, Simulationen: " + (simulationCounter + heuristicCounter)
+					+ ", Stimmen: " + String.format("%.2f", bestVote) + ", Move: " + PackedMove.toString(bestMove));
+		return PackedMove.toMove(gameState, bestMove);
+	}
+
+	/**
+	 * Backpropagates the result of a simulation from selected, with RAVE the siblings of the path get their RAVE statistics updated first.
+	 * For every node on the path, the children whose Move its team played later in the tree or the playout count the result, see {@link #simulate(GameState, int)}.
+	 * With the solver, proofs get propagated up from selected as long as the nodes become proven.
+	 * @param selected node the simulation started at
+	 * @param redWinValue result of the simulation, see {@link #simulate(GameState, int)}
+	 */
+	void backpropagate(TreeNode selected, float redWinValue) {
+		if(useSolver) {
+			TreeNode node = selected;
+			while(node != null && node.solve())
+				node = node.getParent();
+		}
+		if(raveEquivalence > 0) {
+			for(TreeNode node = selected; node.getParent() != null; node = node.getParent()) {
+				int move = node.getPackedMove();
+				markRave(raveKey(PackedMove.getTeam(move), PackedMove.getStart(move), PackedMove.getEnd(move)));
+				for(TreeNode sibling : node.getParent().getChildren().values()) {
+					int siblingMove = sibling.getPackedMove();
+					if(raveSeen[raveKey(PackedMove.getTeam(siblingMove), PackedMove.getStart(siblingMove), PackedMove.getEnd(siblingMove))] == raveStamp)
+						sibling.updateRave(redWinValue, C, raveEquivalence);
+				}
+			}
+		}
+		selected.backpropagate(redWinValue, C, raveEquivalence);
+	}
+
+	/**
+	 * @return key of a Move by team, start and end field for {@link #raveSeen}, the same in every tree and determinization
+	 */
+	private static int raveKey(boolean team, byte start, byte end) {
+		return (team ? 1 << 16 : 0) | (start & 0xFF) << 8 | (end & 0xFF);
+	}
+
+	private void markRave(int key) {
+		if(raveSeen == null)
+			raveSeen = new int[1 << 17];
+		raveSeen[key] = raveStamp;
+	}
+
+	/**
+	 * Tree parallel search, {@link #treeWorkers} threads search one fresh tree at once.
+	 * Virtual losses spread the threads over different paths, see {@link #selectAndExpandShared(TreeNode)}.
+	 * Playouts run on clones of the selected nodes GameState, the tree GameStates are only read.
+	 * @param end System.currentTimeMillis() to stop at
+	 */
+	void treeParallelSearch(long end) {
+		TreeNode shared = freshOrReusedRoot();
+		root = shared;
+		runWorkers(treeWorkers, worker -> {
+			worker.root = shared;
+			while(System.currentTimeMillis() < end && worker.simulationCounter + worker.heuristicCounter < Constants.MAX_SIMULATIONS) {
+				TreeNode selected = worker.selectAndExpandShared(shared);
+				selected.backpropagateVirtual(worker.simulate(selected.simClone(), 0), C);
+			}
+		});
+	}
+
+	/**
+	 * Runs task on count workers in parallel, the calling thread runs it on this MCTS.
+	 * The other workers share Guesser, GameState, heuristics and configuration and get their own seeded {@link EngineContext}.
+	 * Waits for all workers and adds their counters to this MCTS.
+	 * @param count number of workers, including this MCTS
+	 * @param task search to run on every worker
+	 * @return all workers, this MCTS first
+	 */
+	MCTS[] runWorkers(int count, Consumer<MCTS> task) {
+
+		MCTS[] workers = new MCTS[count];
+		ArrayList<Future<?>> running = new ArrayList<Future<?>>();
+		workers[0] = this;
+		for(int i=1; i<count; i++) {
+			MCTS worker = new MCTS(this);
+			long seed = EngineContext.current().getRandom().nextLong();
+			workers[i] = worker;
+			running.add(workerPool().submit(() -> {
+				EngineContext.set(new EngineContext(seed));
+				task.accept(worker);
+			}));
+		}
+		task.accept(this);
+		for(Future<?> worker : running) {
+			try {
+				worker.get();
+			} catch (InterruptedException | ExecutionException e) {
+				e.printStackTrace();
+			}
+		}
+
+		for(int i=1; i<count; i++) {
+			simulationCounter += workers[i].simulationCounter;
+			heuristicCounter += workers[i].heuristicCounter;
+			expansionCounter += workers[i].expansionCounter;
+		}
+		return workers;
+	}
+
+	/**
+	 * @return the daemon threads of the parallel searches and pondering, created on first use
+	 */
+	private ExecutorService workerPool() {
+		if(workerPool == null)
+			workerPool = Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "MCTS worker");
+				thread.setDaemon(true);
+				return thread;
+			});
+		return workerPool;
+	}
+
+	/**
+	 * Searches a fresh tree for a fixed number of iterations, ignores the time limit.
+	 * Gives repeatable amounts of work for benchmarks and tests.
+	 * @param iterations number of select, expand, simulate and backpropagate steps
+	 * @return the root of the searched tree
+	 */
+	public TreeNode search(int iterations) {
+		this.heuristicCounter = 0;
+		this.expansionCounter = 0;
+		this.simulationCounter = 0;
+
+		root = new TreeNode(gameState.clone(), null, null);
+		for(int i=0; i<iterations; i++) {
+			TreeNode selected = selectAndExpand(root);
+			backpropagate(selected, simulate(selected, 0));
+		}
+		return root;
+	}
+
 	/**
 	 * prints some interesting results to the console
 	 * 
@@ -142,13 +718,63 @@ public class MCTS extends AI {
 	 */
 	TreeNode selectAndExpand(TreeNode node){
 		while (!node.isTerminal()) {
-			if (!node.isFullyExpanded()) {
+			if (useSolver && node.isProven())
+				return node;
+			if (mayExpand(node)) {
 				expansionCounter++;
-				return node.expand(useExpandHeuristic, moveHeuristic);
+				return expand(node);
 			} else {
 				// Node is fully expanded, move down via UCT
-				node = node.bestChild();
+				node = useSolver ? node.bestUnprovenChild() : node.bestChild();
+			}
+		}
+		return node;
+	}
+
+
+	/**
+	 * @param node node reached while selecting
+	 * @return true if node has untried Moves and, with progressive widening, may get another child at its visit count
+	 */
+	boolean mayExpand(TreeNode node) {
+		if(useProgressiveWidening)
+			return !node.isWidened(wideningFactor, wideningExponent);
+		return !node.isFullyExpanded();
+	}
+
+	/**
+	 * Expands node by prior with progressive widening, randomly or by heuristic otherwise
+	 * @return the new child, null if another thread took the last untried Move
+	 */
+	TreeNode expand(TreeNode node) {
+		if(useProgressiveWidening)
+			return node.expandByPrior();
+		return node.expand(useExpandHeuristic, moveHeuristic);
+	}
+
+	/**
+	 * Like {@link #selectAndExpand(TreeNode)}, for a tree several threads search at once.
+	 * Adds a virtual loss to every node on the path, {@link TreeNode#backpropagateVirtual(boolean, float)} takes them back.
+	 * @param node root of the shared tree
+	 * @return the node to simulate on
+	 */
+	TreeNode selectAndExpandShared(TreeNode node) {
+		node.addVirtualLoss();
+		while (!node.isTerminal()) {
+			if (mayExpand(node)) {
+				TreeNode child = expand(node);
+				if(child != null) {
+					expansionCounter++;
+					child.addVirtualLoss();
+					return child;
+				}
 			}
+			// another thread might still be adding the only child
+			TreeNode child = node.bestChild(C);
+			if(child == null)
+				return node;
+			node = child;
+			node.addVirtualLoss();
 		}
 		return node;
 	}
@@ -156,29 +782,79 @@ public class MCTS extends AI {
 
 	/**
 	 * simulates a game from a specific node to finish (or a maximum step value of Constants.MAX_STEPS simulation),
-	 * first checks if a node is in a terminal state, if thats the case the simulation ends and the result is returned
+	 * first checks if a node is in a terminal state, if thats the case the simulation ends and the result is returned.
+	 * The playout gets made on the nodes GameState and unmade afterwards with the {@link EngineContext} undo stack, no GameState gets cloned
 	 * @param the node from which a game is going to be simulated
-	 * @return true if team A wins the simulation (either by getting more beans or team B having no moves left), 
-	 * 		   false if team B wins the simulation (either by getting more beans or team A having no moves left)
+	 * @return 1 if team A wins the simulation (either by getting more beans or team B having no moves left), 
+	 * 		   0 if team B wins the simulation (either by getting more beans or team A having no moves left)
 	 * 		   default case is a heuristic. if it returns value > 0, team A is winning
 	 */
-	boolean simulate(TreeNode simulateOn, int step){
-		boolean isTerminal = simulateOn.isTerminal();
-		TreeNode clone = null;
+	float simulate(TreeNode simulateOn, int step){
+		if(useSolver && simulateOn.isProven()) {
+			simulationCounter++;
+			// no playout, RAVE must not count the Moves of the previous one
+			if(raveEquivalence > 0)
+				raveStamp++;
+			return simulateOn.provenRedWins() ? 1 : 0;
+		}
+		return simulate(simulateOn.getGameState(), step);
+	}
 
-		if(!isTerminal)
-			clone = simulateOn.simClone();
-		else
-			clone = simulateOn;
+	/**
+	 * Simulates a game from state like {@link #simulate(TreeNode, int)}, state is the same as before afterwards.
+	 * With {@link #useEvaluationCutoff(int)} an unfinished playout is worth the {@link LinearEvaluation} win probability of red in its last GameState.
+	 * @param state GameState to play out
+	 * @param step steps already made
+	 * @return 1 if team red wins the simulation or is better according to the heuristic, 0 if not, the win probability of red for a cut off playout
+	 */
+	float simulate(GameState state, int step){
+		boolean isTerminal = Utils.isGameOver(state);
+		EngineContext context = EngineContext.current();
+		ObjectArrayList<Move> playoutPath = context.getMadeMoves();
+		int pathStart = playoutPath.size();
+		if(raveEquivalence > 0)
+			raveStamp++;
 
-		while(!isTerminal && step++ < maxSteps) {
-			oneMove(clone, pickField(clone));
-			isTerminal = clone.isTerminal();
+		int steps = evaluation == null ? maxSteps : Math.min(maxSteps, cutoffSteps);
+		while(!isTerminal && step++ < steps && System.nanoTime() < deadline) {
+			oneMove(state, pickField(state));
+			isTerminal = Utils.isGameOver(state);
 		}
 
+		int winner = isTerminal ? Utils.getWinner(state) : 3;
+		float redWinProbability = evaluation == null || isTerminal ? -1 : evaluation.winProbability(state);
+		while(playoutPath.size() > pathStart) {
+			Move move = playoutPath.pop();
+			if(raveEquivalence > 0)
+				markRave(raveKey(move.getPiece().getTeam(), ByteMapper.toByte(move.getStartX(), move.getStartY()),
+						ByteMapper.toByte(move.getEndX(), move.getEndY())));
+			if(playoutPolicy != null)
+				playoutPolicy.record(move);
+			Utils.unmake(state, move, context.getUndoStack());
+		}
 
+		float redWinValue;
+		if(redWinProbability >= 0) {
+			// fractional result, backed up as it is
+			heuristicCounter++;
+			redWinValue = redWinProbability;
+		} else
+			redWinValue = playoutResult(state, isTerminal, winner) ? 1 : 0;
+		if(playoutPolicy != null)
+			playoutPolicy.update(redWinValue);
+		return redWinValue;
+	}
+
+	/**
+	 * Counts a finished playout and decides its result, the heuristic decides unfinished ones.
+	 * @param state GameState the playout started in
+	 * @param isTerminal true if the playout ended the game
+	 * @param winner {@link Utils#getWinner(GameState)} of the last playout GameState
+	 * @return true if team red wins the simulation
+	 */
+	private boolean playoutResult(GameState state, boolean isTerminal, int winner) {
 		if(isTerminal) {
-			switch(Utils.getWinner(clone.getGameState())) {
+			switch(winner) {
 
 			case 0:	// red wins
 				simulationCounter++;
@@ -191,14 +867,14 @@ public class MCTS extends AI {
 				return !getTeam();
 			default:
 				heuristicCounter++;
-				int score = terminalHeuristic.evaluate(simulateOn.getGameState());
-				return score == 0 ? !root.getGameState().getTeam() : score > 0;			// TODO test behaviour
+				int score = terminalHeuristic.evaluate(state);
+				return score == 0 ? !rootTeam() : score > 0;			// TODO test behaviour
 
 			}
 		} else {
 			heuristicCounter++;
-			int score = terminalHeuristic.evaluate(simulateOn.getGameState());
-			return score == 0 ? !root.getGameState().getTeam() : score > 0;			// TODO test behaviour
+			int score = terminalHeuristic.evaluate(state);
+			return score == 0 ? !rootTeam() : score > 0;			// TODO test behaviour
 		}
 	}
 
@@ -207,51 +883,65 @@ public class MCTS extends AI {
 	 * Configure heavy(heuristic) or light(random) move choosing with {@link #useHeavyPlayout}.
 	 * @return a random Move
 	 */	
-	Move pickField(TreeNode simulateOn) {
+	Move pickField(GameState state) {
 		Move move;
 
-		if(useCommonPlayout) {
+		if(playoutPolicy != null) {
+			ObjectArrayList<Move> madeMoves = EngineContext.current().getMadeMoves();
+			move = playoutPolicy.pick(state, madeMoves.isEmpty() ? null : madeMoves.top());
+		} else if(useCommonPlayout) {
 			double evaluationNeighbors;
 			double evaluationTarget;
 			do {
-				move = RandomAI.nextMove(simulateOn.getGameState());
-				evaluationNeighbors = moveHeuristic.moveNeighborSafety(move, simulateOn.getGameState());
+				move = RandomAI.nextMove(state);
+				evaluationNeighbors = moveHeuristic.moveNeighborSafety(move, state);
 				evaluationTarget = moveHeuristic.evaluate(move, gameState);
 			} while ((evaluationTarget == 0 &&
 					((evaluationNeighbors) > 0.7 && evaluationNeighbors < 1))
-					&& rand.nextInt(5) > 1);
+					&& EngineContext.current().getRandom().nextInt(5) > 1);
 		} else if(useHybridPlayout) {
-			if(rand.nextInt(5) < 1)
-				move = moveHeuristic.getBestMove(
-						Utils.getAllPossibleMoves(
-								simulateOn.getGameState()), 
-						simulateOn.getGameState());
+			if(EngineContext.current().getRandom().nextInt(5) < 1)
+				move = bestHeuristicMove(state);
 			else
-				move = RandomAI.nextMove(simulateOn.getGameState());
+				move = RandomAI.nextMove(state);
 		} else if(useHeavyPlayout)
-			move = moveHeuristic.getBestMove(
-					Utils.getAllPossibleMoves(
-							simulateOn.getGameState()), 
-					simulateOn.getGameState());
+			move = bestHeuristicMove(state);
 		else
-			move = RandomAI.nextMove(simulateOn.getGameState());
+			move = RandomAI.nextMove(state);
 
 	return move;
 }
 
 /**
- * Simulates one move and returns a new node containing the new state.
- * also adds the new node to the parent nodes children, its place in the Array
- * is the move made to get from the parent to the child (= field %6)
- * @param parent node
- * @param the move in form of the selected element in the parents array
- * @param isExpanding true if oneMove gets called from the expand method. false if its from simulate. depending on that less calculations are made for simulations
- * @return a child node containing the simulation result
+ * Generates all Moves into the {@link EngineContext} Move buffer and returns the best one according to {@link #moveHeuristic}.
+ * @param state GameState to pick a Move in
+ * @return best Move, only the returned Move gets created as object
  */
-void oneMove(TreeNode parent, Move move) {
-	Utils.execute(parent.getGameState(), move);
+Move bestHeuristicMove(GameState state) {
+	MoveBuffer moves = EngineContext.current().getMoveBuffer();
+	Utils.generateMoves(state, moves);
+	return PackedMove.toMove(state, moveHeuristic.getBestMove(moves, state));
+}
+
+/**
+ * Makes one playout move on state and remembers it in the {@link EngineContext},
+ * so {@link #simulate(GameState, int)} can unmake it afterwards.
+ * @param state GameState of the playout
+ * @param move to make
+ */
+void oneMove(GameState state, Move move) {
+	EngineContext context = EngineContext.current();
+	Utils.make(state, move, context.getUndoStack());
+	context.getMadeMoves().push(move);
 }	
 
+/**
+ * @return the team on turn at the root of the current search
+ */
+boolean rootTeam() {
+	return root.getGameState().getTeam();
+}
+
 /**
  * Returns the {@link #root} best child.
  * @param parent node
@@ -264,6 +954,23 @@ TreeNode bestRootChild(TreeNode parent) {
 }
 
 
+/**
+ * Corrects the picked root child with the solver results: a proven winning child is always picked,
+ * a proven losing one is replaced by the most visited child that is not proven lost, if there is one.
+ * @param picked root child picked by visits
+ * @return the child to play
+ */
+TreeNode solvedRootChild(TreeNode picked) {
+	TreeNode notLost = null;
+	for(TreeNode child : root.getChildren().values()) {
+		if(child.getProof() == TreeNode.PROVEN_WIN)
+			return child;
+		if(child.getProof() != TreeNode.PROVEN_LOSS && (notLost == null || child.getNK() > notLost.getNK()))
+			notLost = child;
+	}
+	return picked.getProof() == TreeNode.PROVEN_LOSS && notLost != null ? notLost : picked;
+}
+
 /**
  * Returns the root best child. 
  * Uses improved algorithms to prohibit infinity loops.
@@ -285,16 +992,136 @@ TreeNode bestChildNoLoops(TreeNode parent) {
 	return goodChildren.get(0);
 }
 
+/**
+ * @return true if the search runs on {@link TreeNode}s, searches on their own tree do not support the TreeNode modes
+ */
+boolean searchesTreeNodes() {
+	return true;
+}
+
+/**
+ * @param mode name of a mode that needs the {@link TreeNode} search
+ * @throws UnsupportedOperationException if this search does not use TreeNodes, see {@link #searchesTreeNodes()}
+ */
+private void requireTreeNodes(String mode) {
+	if(!searchesTreeNodes())
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support " + mode);
+}
+
 public void setMaxSteps(int maxSteps) {
 	this.maxSteps = maxSteps;
 }
+/**
+ * @param timeInMs search time per Move without {@link TimeManager}
+ */
+public void setTimeInMs(int timeInMs) {
+	this.timeInMs = timeInMs;
+}
 public void setC(float C) {
 	this.C = C;
 }
+/**
+ * Searches workers independent trees in parallel, see {@link #rootParallelMove(long)}
+ * @param workers number of trees, e.g. Runtime.getRuntime().availableProcessors()
+ */
+public void useRootParallel(int workers) {
+	requireTreeNodes("root parallel search");
+	rootWorkers = Math.max(1, workers);
+}
+/**
+ * Lets workers threads search one shared tree, see {@link #treeParallelSearch(long)}
+ * @param workers number of threads, e.g. Runtime.getRuntime().availableProcessors()
+ */
+public void useTreeParallel(int workers) {
+	requireTreeNodes("tree parallel search");
+	treeWorkers = Math.max(1, workers);
+}
+/**
+ * Searches one tree per sampled enemy setup in parallel, see {@link #ensembleMove(long)}
+ * @param worlds number of sampled setups, e.g. Runtime.getRuntime().availableProcessors()
+ */
+public void useEnsemble(int worlds) {
+	requireTreeNodes("ensemble search");
+	ensembleWorlds = Math.max(1, worlds);
+}
+/**
+ * Admits ceil(factor * visits^exponent) children per node, ordered by a cheap prior, see {@link TreeNode#isWidened(float, float)}
+ * @param factor number of children at one visit, e.g. {@link Constants#WIDENING_FACTOR}
+ * @param exponent growth with the visits between 0 and 1, e.g. {@link Constants#WIDENING_EXPONENT}
+ */
+public void useProgressiveWidening(float factor, float exponent) {
+	requireTreeNodes("progressive widening");
+	useProgressiveWidening = true;
+	wideningFactor = factor;
+	wideningExponent = exponent;
+}
+/**
+ * Blends All-Moves-As-First statistics into the UCT values, see {@link #backpropagate(TreeNode, float)}.
+ * Not used by the tree parallel search.
+ * @param equivalence visits at which real and RAVE statistics weigh about the same, e.g. {@link Constants#RAVE_EQUIVALENCE}
+ */
+public void useRave(float equivalence) {
+	requireTreeNodes("RAVE");
+	raveEquivalence = equivalence;
+}
+/**
+ * Plays out with learned MAST and last good reply Moves instead of the configured playout, see {@link PlayoutPolicy}.
+ * The statistics are kept between Moves.
+ * @param epsilon probability of a random playout Move, e.g. {@link Constants#PLAYOUT_EPSILON}
+ */
+public void usePlayoutPolicy(float epsilon) {
+	playoutPolicy = new PlayoutPolicy(epsilon);
+}
+/**
+ * Cuts playouts off after steps and decides them by the win probability of a {@link LinearEvaluation}
+ * instead of the {@link TerminalHeuristic}, see {@link #simulate(GameState, int)}
+ * @param steps playout length, e.g. {@link Constants#CUTOFF_STEPS}
+ */
+public void useEvaluationCutoff(int steps) {
+	evaluation = new LinearEvaluation();
+	cutoffSteps = steps;
+}
+/**
+ * Replaces the fixed time per Move with budgets from a game clock, see {@link TimeManager}
+ * @param clockInMs time for the whole game
+ * @param incrementInMs time added after every Move
+ */
+public void useTimeManager(long clockInMs, long incrementInMs) {
+	timeManager = new TimeManager(clockInMs, incrementInMs);
+}
+/**
+ * Keeps searching while the opponent is on turn, see {@link #startPondering()}.
+ * Pondering takes a core from the opponent when both play in the same process.
+ */
+public void usePondering() {
+	requireTreeNodes("pondering");
+	ponder = true;
+}
+/**
+ * Picks the root Move by Sequential Halving, see {@link #sequentialHalving(long, int)}.
+ * Meant for short search times, e.g. 100 to 200 ms per Move in self-play.
+ */
+public void useSequentialHalving() {
+	requireTreeNodes("Sequential Halving");
+	useSequentialHalving = true;
+}
+/**
+ * Proves wins and losses with the MCTS-Solver, see {@link TreeNode#solve()}.
+ * Used by the serial searches, the tree parallel search ignores proofs.
+ */
+public void useSolver() {
+	requireTreeNodes("the MCTS-Solver");
+	useSolver = true;
+}
+public void disableTreeReuse() {
+	reuseTree = false;
+}
 public void useExpandHeuristic() {
+	requireTreeNodes("the expand heuristic");
 	useExpandHeuristic = true;
 }
 public void enableBestChildNoLoops() {
+	requireTreeNodes("best child without loops");
 	enableBestChildNoLoops = true;
 }
 public void useHeavyPlayout() {
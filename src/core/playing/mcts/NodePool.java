@@ -0,0 +1,132 @@
+package core.playing.mcts;
+
+import core.MoveBuffer;
+import core.PackedMove;
+
+/**
+ * Preallocated MCTS nodes, stored as parallel primitive arrays and addressed by int index.
+ * The children of a node get allocated together as one block when the node is expanded for the first time.
+ * The first expandedCount children of a block are the already visited ones, the others are still untried.
+ * Nodes hold no GameState, the search walks down from the root with make/unmake.
+ * {@link #reset()} drops all nodes in O(1), nodes are never allocated or garbage collected one by one.
+ */
+public class NodePool {
+	public static final int ROOT = 0;
+	/**
+	 * childCount of a node whose children have not been allocated yet
+	 */
+	public static final int NOT_EXPANDED = -1;
+
+	final int[] visits;
+	/**
+	 * Wins of the team that made the Move leading to the node, fractional for cut off playouts
+	 */
+	final float[] wins;
+	final int[] firstChild;
+	final int[] childCount;
+	final int[] expandedCount;
+	/**
+	 * {@link PackedMove} leading to the node, packed in the parents GameState
+	 */
+	final int[] move;
+	final int[] parent;
+	private int size;
+
+	public NodePool(int capacity) {
+		visits = new int[capacity];
+		wins = new float[capacity];
+		firstChild = new int[capacity];
+		childCount = new int[capacity];
+		expandedCount = new int[capacity];
+		move = new int[capacity];
+		parent = new int[capacity];
+		reset();
+	}
+
+	/**
+	 * Drops all nodes but a new {@link #ROOT}
+	 */
+	public final void reset() {
+		size = 0;
+		init(ROOT, -1, 0);
+		size = 1;
+	}
+
+	private void init(int node, int parentNode, int packedMove) {
+		visits[node] = 0;
+		wins[node] = 0;
+		childCount[node] = NOT_EXPANDED;
+		expandedCount[node] = 0;
+		move[node] = packedMove;
+		parent[node] = parentNode;
+	}
+
+	/**
+	 * Allocates one child per Move of moves for node.
+	 * @param node node to expand
+	 * @param moves all Moves possible in the GameState of node
+	 * @return true if the children got allocated, false if the pool is full
+	 */
+	boolean allocateChildren(int node, MoveBuffer moves) {
+		int count = moves.size();
+		if(size + count > visits.length)
+			return false;
+		firstChild[node] = size;
+		childCount[node] = count;
+		for(int i=0; i<count; i++)
+			init(size + i, node, moves.get(i));
+		size += count;
+		return true;
+	}
+
+	/**
+	 * Marks an untried child of node as expanded, by swapping it to the end of the expanded children.
+	 * @param node parent node
+	 * @param untried index of the untried child within the untried ones of node
+	 * @return the expanded child
+	 */
+	int expandChild(int node, int untried) {
+		int child = firstChild[node] + expandedCount[node]++;
+		int picked = child + untried;
+		int packedMove = move[picked];
+		move[picked] = move[child];
+		move[child] = packedMove;
+		return child;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int capacity() {
+		return visits.length;
+	}
+
+	public int getVisits(int node) {
+		return visits[node];
+	}
+
+	public float getWins(int node) {
+		return wins[node];
+	}
+
+	public int getMove(int node) {
+		return move[node];
+	}
+
+	public int getParent(int node) {
+		return parent[node];
+	}
+
+	public int getFirstChild(int node) {
+		return firstChild[node];
+	}
+
+	public int getChildCount(int node) {
+		return childCount[node];
+	}
+
+	public int getExpandedCount(int node) {
+		return expandedCount[node];
+	}
+}
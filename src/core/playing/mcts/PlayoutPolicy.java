@@ -0,0 +1,178 @@
+package core.playing.mcts;
+
+import java.util.Arrays;
+
+import core.EngineContext;
+import core.GameState;
+import core.Move;
+import core.MoveBuffer;
+import core.PackedMove;
+import core.Utils;
+
+/**
+ * Learned playout policy: Move-Average Sampling Technique (MAST) with last good replies (LGRF-1).
+ * <p>
+ * MAST keeps the playout win rate of every Move by team, PieceType, start and end field.
+ * The last good reply table stores for every Move the answer that won the last playout it was played in,
+ * an answer that lost gets forgotten again.
+ * A playout Move is the last good reply to the previous Move if it is legal, otherwise a random Move with probability epsilon
+ * and the Move with the best MAST win rate else.
+ * <p>
+ * All statistics are flat arrays, they are kept between searches. Not thread safe, every worker needs its own policy.
+ */
+public class PlayoutPolicy {
+	/**
+	 * team (1 bit), PieceType byte (3 bit), start and end field (6 bit each)
+	 */
+	static final int MAST_ENTRIES = 1 << 16;
+	/**
+	 * team (1 bit), start and end field (6 bit each)
+	 */
+	static final int REPLY_ENTRIES = 1 << 13;
+
+	private final int[] mastVisits = new int[MAST_ENTRIES];
+	/**
+	 * Fractional for cut off playouts
+	 */
+	private final float[] mastWins = new float[MAST_ENTRIES];
+	/**
+	 * Start and end field + 1 of the last good reply to a Move, 0 if there is none
+	 */
+	private final int[] replies = new int[REPLY_ENTRIES];
+	/**
+	 * MAST indexes of the Moves of the current playout, last Move first
+	 */
+	private int[] played = new int[64];
+	private int playedCount;
+	private final float epsilon;
+
+	/**
+	 * @param epsilon probability of a random Move instead of the best MAST Move
+	 */
+	public PlayoutPolicy(float epsilon) {
+		this.epsilon = epsilon;
+	}
+
+	/**
+	 * Picks the next playout Move
+	 * @param state GameState of the playout, not over
+	 * @param previous last Move of the playout, null if there is none
+	 * @return the picked Move
+	 */
+	public Move pick(GameState state, Move previous) {
+		MoveBuffer moves = EngineContext.current().getMoveBuffer();
+		Utils.generateMoves(state, moves);
+
+		if(previous != null) {
+			int reply = replies[replyIndex(previous.getPiece().getTeam(), square(previous.getStartX(), previous.getStartY()),
+					square(previous.getEndX(), previous.getEndY()))];
+			if(reply != 0)
+				for(int i=0; i<moves.size(); i++)
+					if(squares(moves.get(i)) + 1 == reply)
+						return PackedMove.toMove(state, moves.get(i));
+		}
+
+		if(EngineContext.current().getRandom().nextFloat() < epsilon)
+			return PackedMove.toMove(state, moves.get(EngineContext.current().getRandom().nextInt(moves.size())));
+
+		int best = 0;
+		float bestValue = -1;
+		int ties = 0;
+		for(int i=0; i<moves.size(); i++) {
+			int move = moves.get(i);
+			int index = mastIndex(PackedMove.getTeam(move), PackedMove.getPiece(state, move).getType().getByte(), squares(move));
+			float value = (mastWins[index] + 1f) / (mastVisits[index] + 2f);
+			if(value > bestValue) {
+				bestValue = value;
+				best = i;
+				ties = 1;
+			} else if(value == bestValue && EngineContext.current().getRandom().nextInt(++ties) == 0)
+				best = i;
+		}
+		return PackedMove.toMove(state, moves.get(best));
+	}
+
+	/**
+	 * Remembers a Move of the current playout, call with the last Move first while unmaking the playout
+	 * @param move Move made in the playout
+	 */
+	public void record(Move move) {
+		if(playedCount == played.length)
+			played = Arrays.copyOf(played, played.length * 2);
+		played[playedCount++] = mastIndex(move.getPiece().getTeam(), move.getPiece().getType().getByte(),
+				square(move.getStartX(), move.getStartY()) << 6 | square(move.getEndX(), move.getEndY()));
+	}
+
+	/**
+	 * Adds the result of the current finished playout, see {@link #update(float)}
+	 * @param redWins result of the playout
+	 */
+	public void update(boolean redWins) {
+		update(redWins ? 1f : 0f);
+	}
+
+	/**
+	 * Adds the result of the current playout to the statistics of its {@link #record(Move)}ed Moves.
+	 * A reply is kept if its team won more than half of the playout and forgotten if it won less.
+	 * @param redWinValue 1 if red won the playout, 0 if blue won, the win probability of red for a cut off playout
+	 */
+	public void update(float redWinValue) {
+		for(int i=playedCount-1; i>=0; i--) {
+			int index = played[i];
+			float value = index >> 15 == 1 ? redWinValue : 1 - redWinValue;
+			mastVisits[index]++;
+			mastWins[index] += value;
+
+			if(i < playedCount - 1) {
+				int previous = played[i + 1];
+				int reply = replyIndex(previous >> 15 == 1, previous >> 6 & 63, previous & 63);
+				int answer = (index & 0xFFF) + 1;
+				if(value > 0.5f)
+					replies[reply] = answer;
+				else if(value < 0.5f && replies[reply] == answer)
+					replies[reply] = 0;
+			}
+		}
+		playedCount = 0;
+	}
+
+	public float getEpsilon() {
+		return epsilon;
+	}
+
+	/**
+	 * @return MAST visits of a Move, for tests and statistics
+	 */
+	int getVisits(boolean team, byte type, int startX, int startY, int endX, int endY) {
+		return mastVisits[mastIndex(team, type, square(startX, startY) << 6 | square(endX, endY))];
+	}
+
+	/**
+	 * @return the last good reply to a Move as start field << 6 | end field, -1 if there is none
+	 */
+	int getReply(boolean team, int startX, int startY, int endX, int endY) {
+		return replies[replyIndex(team, square(startX, startY), square(endX, endY))] - 1;
+	}
+
+	private static int mastIndex(boolean team, byte type, int squares) {
+		return (team ? 1 << 15 : 0) | (type & 7) << 12 | squares;
+	}
+
+	private static int replyIndex(boolean team, int start, int end) {
+		return (team ? 1 << 12 : 0) | start << 6 | end;
+	}
+
+	/**
+	 * @param move {@link PackedMove}
+	 * @return start field << 6 | end field
+	 */
+	private static int squares(int move) {
+		byte start = PackedMove.getStart(move);
+		byte end = PackedMove.getEnd(move);
+		return (start >> 4) << 9 | (start & 0x0F) << 6 | (end >> 4) << 3 | (end & 0x0F);
+	}
+
+	private static int square(int x, int y) {
+		return x << 3 | y;
+	}
+}
@@ -0,0 +1,202 @@
+package core.playing.mcts;
+
+import java.util.Arrays;
+
+import core.EngineContext;
+import core.GameState;
+import core.Move;
+import core.MoveBuffer;
+import core.PackedMove;
+import core.UndoStack;
+import core.Utils;
+import core.playing.random.RandomAI;
+
+/**
+ * MCTS on a {@link NodePool} instead of {@link TreeNode} objects.
+ * Only one GameState exists during the search, every iteration makes the Moves from the root down to the selected node,
+ * simulates and unmakes them again. The pool gets reset between Moves, searching allocates no nodes.
+ * Playouts and heuristics are the same as in {@link MCTS}.
+ */
+public class PooledMCTS extends MCTS {
+	private final NodePool pool;
+	private final MoveBuffer moves = new MoveBuffer();
+	private final UndoStack undo = new UndoStack();
+	/**
+	 * GameState of the search root, Moves made on it get unmade at the end of every iteration
+	 */
+	private GameState searchState;
+	/**
+	 * Nodes of the current iteration, root first
+	 */
+	private int[] path = new int[64];
+	/**
+	 * Moves made to reach the nodes of {@link #path}, pathMoves[i] leads to path[i+1]
+	 */
+	private Move[] pathMoves = new Move[64];
+	/**
+	 * Team that made pathMoves[i], true for red
+	 */
+	private boolean[] pathTeams = new boolean[64];
+	/**
+	 * Team on turn in {@link #searchState} before any Move of the current iteration is made
+	 */
+	private boolean rootTeam;
+
+	public PooledMCTS(boolean team, GameState gameState, String ... guesserProbs) {
+		this(team, gameState, Constants.POOL_NODES, guesserProbs);
+	}
+
+	/**
+	 * @param capacity number of nodes in the pool, the tree stops growing when they are used up
+	 */
+	public PooledMCTS(boolean team, GameState gameState, int capacity, String ... guesserProbs) {
+		super(team, gameState, guesserProbs);
+		pool = new NodePool(capacity);
+	}
+
+	@Override
+	Move searchMove(long end) {
+		startSearch();
+		while(System.currentTimeMillis() < end && simulationCounter + heuristicCounter < Constants.MAX_SIMULATIONS)
+			iterate();
+
+		int best = bestRootChild();
+		if(best < 0) {
+			System.err.println("MCTS Warning: No best child found. Picking random valid move.");
+			return RandomAI.nextMove(gameState);
+		}
+		if(printResultsToConsole)
+			System.out.println("Pooled MCTS, Knoten: " + pool.size() + ", Simulationen: " + (simulationCounter + heuristicCounter)
+					+ ", Besuche: " + pool.getVisits(best) + ", Move: " + PackedMove.toString(pool.getMove(best)));
+		return PackedMove.toMove(searchState, pool.getMove(best));
+	}
+
+	/**
+	 * Searches for a fixed number of iterations, ignores the time limit.
+	 * @param iterations number of select, expand, simulate and backpropagate steps
+	 * @return the searched pool
+	 */
+	public NodePool searchPool(int iterations) {
+		startSearch();
+		for(int i=0; i<iterations; i++)
+			iterate();
+		return pool;
+	}
+
+	private void startSearch() {
+		heuristicCounter = 0;
+		expansionCounter = 0;
+		simulationCounter = 0;
+		searchState = gameState.clone();
+		rootTeam = searchState.getTeam();
+		pool.reset();
+	}
+
+	/**
+	 * One select, expand, simulate and backpropagate step on {@link #searchState}.
+	 */
+	void iterate() {
+		int node = NodePool.ROOT;
+		int depth = 0;
+		path[0] = node;
+		while(!Utils.isGameOver(searchState)) {
+			if(pool.childCount[node] == NodePool.NOT_EXPANDED) {
+				Utils.generateMoves(searchState, moves);
+				if(!pool.allocateChildren(node, moves))
+					break;
+			}
+			int expanded = pool.expandedCount[node];
+			int untried = pool.childCount[node] - expanded;
+			int child;
+			if(untried > 0) {
+				expansionCounter++;
+				child = pool.expandChild(node, EngineContext.current().getRandom().nextInt(untried));
+			} else if(expanded > 0)
+				child = bestChild(node);
+			else
+				break;
+
+			descend(depth++, child);
+			node = child;
+			if(untried > 0)
+				break;
+		}
+
+		float redWinValue = simulate(searchState, 0);
+		for(int i=depth-1; i>=0; i--)
+			Utils.unmake(searchState, pathMoves[i], undo);
+		backpropagate(depth, redWinValue);
+	}
+
+	/**
+	 * Makes the Move of child on {@link #searchState} and appends child to the {@link #path}
+	 */
+	private void descend(int depth, int child) {
+		if(depth + 1 == path.length) {
+			path = Arrays.copyOf(path, path.length * 2);
+			pathMoves = Arrays.copyOf(pathMoves, pathMoves.length * 2);
+			pathTeams = Arrays.copyOf(pathTeams, pathTeams.length * 2);
+		}
+		Move move = PackedMove.toMove(searchState, pool.move[child]);
+		pathTeams[depth] = searchState.getTeam();
+		pathMoves[depth] = move;
+		path[depth + 1] = child;
+		Utils.make(searchState, move, undo);
+	}
+
+	private void backpropagate(int depth, float redWinValue) {
+		pool.visits[path[0]]++;
+		for(int i=0; i<depth; i++) {
+			int node = path[i + 1];
+			pool.visits[node]++;
+			pool.wins[node] += pathTeams[i] ? redWinValue : 1 - redWinValue;
+		}
+	}
+
+	/**
+	 * @param node fully expanded node
+	 * @return the child with the highest UCT value
+	 */
+	private int bestChild(int node) {
+		int first = pool.firstChild[node];
+		int end = first + pool.expandedCount[node];
+		double logVisits = Math.log(pool.visits[node]);
+		int best = first;
+		double bestValue = Double.NEGATIVE_INFINITY;
+		for(int child=first; child<end; child++) {
+			double visits = pool.visits[child];
+			double value = pool.wins[child] / visits + C * Math.sqrt(logVisits / visits);
+			if(value > bestValue) {
+				bestValue = value;
+				best = child;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @return the most visited child of the root, -1 if there is none
+	 */
+	int bestRootChild() {
+		int first = pool.firstChild[NodePool.ROOT];
+		int end = first + pool.expandedCount[NodePool.ROOT];
+		int best = -1;
+		for(int child=first; child<end; child++)
+			if(best < 0 || pool.visits[child] > pool.visits[best])
+				best = child;
+		return best;
+	}
+
+	/**
+	 * @return the team on turn at the root, {@link #searchState} is at the selected node while simulating
+	 */
+	@Override
+	boolean rootTeam() {
+		return rootTeam;
+	}
+
+	@Override
+	boolean searchesTreeNodes() {
+		return false;
+	}
+}
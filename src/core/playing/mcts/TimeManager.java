@@ -0,0 +1,141 @@
+package core.playing.mcts;
+
+import core.GameState;
+
+/**
+ * Splits a per game clock with increment into per Move search budgets, replaces the fixed {@link Constants#TIME_IN_MS}.
+ * <p>
+ * The budget is the remaining time divided by the Moves expected to be left, estimated from the Pieces still alive,
+ * plus most of the increment, scaled by the branching factor.
+ * A search stops before its budget when the most visited root child can not be overtaken anymore at the current search speed,
+ * and gets extended up to a hard limit when the most visited root child changed shortly before the budget ran out.
+ * The time of a Move is taken from the clock by {@link #endMove()}, pondering on the opponents turn is not counted.
+ */
+public class TimeManager {
+	/**
+	 * Branching factor a budget is not scaled for
+	 */
+	static final int AVERAGE_MOVES = 20;
+	/**
+	 * Fraction of the budget that has to pass before the search may stop early
+	 */
+	static final double MIN_FRACTION = 0.1;
+	/**
+	 * A best child that changed in this last fraction of the budget is unstable
+	 */
+	static final double UNSTABLE_FRACTION = 0.25;
+	/**
+	 * Extended searches stop at this many budgets
+	 */
+	static final int MAX_EXTENSION = 3;
+
+	private long remaining;
+	private final long increment;
+	private long moveStart;
+	private long budget;
+	private long hardLimit;
+	private int lastBest;
+	private long lastBestChange;
+
+	/**
+	 * @param clockInMs time for the whole game
+	 * @param incrementInMs time added to the clock after every Move
+	 */
+	public TimeManager(long clockInMs, long incrementInMs) {
+		remaining = clockInMs;
+		increment = incrementInMs;
+	}
+
+	/**
+	 * Starts the clock for a Move and calculates its budget
+	 * @param state GameState to search
+	 * @param legalMoves number of legal Moves in state
+	 * @return System.currentTimeMillis() at which the budget runs out
+	 */
+	public long startMove(GameState state, int legalMoves) {
+		return startMove(state, legalMoves, System.currentTimeMillis());
+	}
+
+	long startMove(GameState state, int legalMoves, long now) {
+		moveStart = now;
+		budget = budget(state, legalMoves);
+		hardLimit = Math.min(budget * MAX_EXTENSION, Math.max(budget, remaining / 3));
+		lastBest = -1;
+		lastBestChange = now;
+		return now + budget;
+	}
+
+	/**
+	 * @param state GameState to search
+	 * @param legalMoves number of legal Moves in state
+	 * @return time for the Move in ms, 0 if there is only one legal Move
+	 */
+	public long budget(GameState state, int legalMoves) {
+		if(legalMoves <= 1)
+			return 0;
+		int alive = 20 - state.getDeadRed() - state.getDeadBlue();
+		int movesToGo = 10 + 2 * alive;
+		double branching = Math.sqrt((double) legalMoves / AVERAGE_MOVES);
+		branching = Math.max(0.5, Math.min(2, branching));
+		long budget = (long) ((remaining / movesToGo + increment * 3 / 4) * branching);
+		return Math.max(1, Math.min(budget, remaining / 4));
+	}
+
+	/**
+	 * Decides if the search can stop, call it regularly while searching.
+	 * @param best identifier of the most visited root child, e.g. its {@link core.PackedMove}
+	 * @param bestVisits visits of the most visited root child
+	 * @param secondVisits visits of the second most visited root child
+	 * @param iterations iterations searched since {@link #startMove(GameState, int)}
+	 * @return true if the search should stop
+	 */
+	public boolean shouldStop(int best, int bestVisits, int secondVisits, int iterations) {
+		return shouldStop(best, bestVisits, secondVisits, iterations, System.currentTimeMillis());
+	}
+
+	boolean shouldStop(int best, int bestVisits, int secondVisits, int iterations, long now) {
+		long elapsed = now - moveStart;
+		if(best != lastBest) {
+			lastBest = best;
+			lastBestChange = now;
+		}
+		if(elapsed >= hardLimit)
+			return true;
+		if(elapsed >= budget)
+			return now - lastBestChange > budget * UNSTABLE_FRACTION;
+		if(elapsed < budget * MIN_FRACTION)
+			return false;
+		double iterationsLeft = (double) iterations / Math.max(1, elapsed) * (budget - elapsed);
+		return bestVisits - secondVisits > iterationsLeft;
+	}
+
+	/**
+	 * Takes the time since {@link #startMove(GameState, int)} from the clock and adds the increment
+	 */
+	public void endMove() {
+		endMove(System.currentTimeMillis());
+	}
+
+	void endMove(long now) {
+		remaining = Math.max(0, remaining - (now - moveStart)) + increment;
+	}
+
+	public long getRemaining() {
+		return remaining;
+	}
+
+	public long getBudget() {
+		return budget;
+	}
+
+	public long getHardLimit() {
+		return hardLimit;
+	}
+
+	/**
+	 * @return System.currentTimeMillis() at which an extended search has to end
+	 */
+	public long getHardDeadline() {
+		return moveStart + hardLimit;
+	}
+}
@@ -0,0 +1,217 @@
+package core.playing.mcts;
+
+import java.util.Arrays;
+
+import core.EngineContext;
+import core.GameState;
+import core.Move;
+import core.MoveBuffer;
+import core.PackedMove;
+import core.UndoStack;
+import core.Utils;
+import core.playing.random.RandomAI;
+
+/**
+ * MCTS on a directed graph of positions instead of a tree: Move orders that reach the same position share its statistics.
+ * Positions are stored in a {@link TranspositionTable}, the search walks down from the root with make/unmake like {@link PooledMCTS}.
+ * <p>
+ * Backup rule: the statistics belong to positions, not to Moves.
+ * An iteration adds its result once to every position on its own path, other paths into the same positions are not updated.
+ * Selection uses UCT with the win rate and visits of the position a Move leads to and the visits of the current position,
+ * a Move to a position without visits gets expanded first.
+ * The descent stops when a position repeats on the current path, so cycles of back and forth Moves end in a playout.
+ * <p>
+ * The table is kept between Moves, positions searched before keep their statistics.
+ */
+public class TranspositionMCTS extends MCTS {
+	private final TranspositionTable table;
+	private final MoveBuffer moves = new MoveBuffer();
+	private final UndoStack undo = new UndoStack();
+	private GameState searchState;
+	/**
+	 * Zobrist keys of the positions of the current iteration, root first
+	 */
+	private long[] pathHashes = new long[64];
+	/**
+	 * Moves made on {@link #searchState} in the current iteration, pathMoves[i] leads to pathHashes[i+1]
+	 */
+	private Move[] pathMoves = new Move[64];
+	/**
+	 * true if the last {@link #pickMove()} picked a Move to a position without visits
+	 */
+	private boolean pickedUnvisited;
+	/**
+	 * Team on turn in {@link #searchState} before any Move of the current iteration is made
+	 */
+	private boolean rootTeam;
+
+	public TranspositionMCTS(boolean team, GameState gameState, String ... guesserProbs) {
+		this(team, gameState, Constants.TRANSPOSITION_ENTRIES, guesserProbs);
+	}
+
+	/**
+	 * @param capacity number of positions the table can hold
+	 */
+	public TranspositionMCTS(boolean team, GameState gameState, int capacity, String ... guesserProbs) {
+		super(team, gameState, guesserProbs);
+		table = new TranspositionTable(capacity);
+	}
+
+	@Override
+	Move searchMove(long end) {
+		startSearch();
+		while(System.currentTimeMillis() < end && simulationCounter + heuristicCounter < Constants.MAX_SIMULATIONS)
+			iterate();
+
+		int best = bestRootMove();
+		if(best == -1) {
+			System.err.println("MCTS Warning: No best child found. Picking random valid move.");
+			return RandomAI.nextMove(gameState);
+		}
+		if(printResultsToConsole)
+			System.out.println("Transposition MCTS, Positionen: " + table.size() + ", ersetzt: " + table.getReplaced()
+					+ ", Simulationen: " + (simulationCounter + heuristicCounter) + ", Move: " + PackedMove.toString(best));
+		return PackedMove.toMove(searchState, best);
+	}
+
+	/**
+	 * Searches for a fixed number of iterations, ignores the time limit.
+	 * @param iterations number of select, expand, simulate and backpropagate steps
+	 * @return the table with the searched positions
+	 */
+	public TranspositionTable searchTable(int iterations) {
+		startSearch();
+		for(int i=0; i<iterations; i++)
+			iterate();
+		return table;
+	}
+
+	private void startSearch() {
+		heuristicCounter = 0;
+		expansionCounter = 0;
+		simulationCounter = 0;
+		searchState = gameState.clone();
+		rootTeam = searchState.getTeam();
+	}
+
+	/**
+	 * One select, expand, simulate and backpropagate step on {@link #searchState}.
+	 */
+	void iterate() {
+		int depth = 0;
+		pathHashes[0] = searchState.getHash();
+		while(depth < maxSteps && !Utils.isGameOver(searchState)) {
+			int picked = pickMove();
+			if(picked < 0)
+				break;
+
+			Move move = PackedMove.toMove(searchState, moves.get(picked));
+			Utils.make(searchState, move, undo);
+			if(depth + 2 > pathHashes.length) {
+				pathHashes = Arrays.copyOf(pathHashes, pathHashes.length * 2);
+				pathMoves = Arrays.copyOf(pathMoves, pathMoves.length * 2);
+			}
+			pathMoves[depth++] = move;
+			pathHashes[depth] = searchState.getHash();
+
+			if(pickedUnvisited) {
+				expansionCounter++;
+				break;
+			}
+			if(onPath(depth))
+				break;
+		}
+
+		float redWinValue = simulate(searchState, 0);
+		for(int i=depth-1; i>=0; i--)
+			Utils.unmake(searchState, pathMoves[i], undo);
+
+		for(int i=0; i<=depth; i++)
+			if(!onPath(i))
+				table.update(table.findOrInsert(pathHashes[i]), redWinValue);
+	}
+
+	/**
+	 * Picks the Move to descend with from all Moves of {@link #searchState}.
+	 * A random Move to a position without visits is preferred, otherwise the Move with the best UCT value is picked.
+	 * @return index of the picked Move in {@link #moves}, -1 if there are no Moves
+	 */
+	private int pickMove() {
+		Utils.generateMoves(searchState, moves);
+		boolean red = searchState.getTeam();
+		int current = table.find(searchState.getHash());
+		double logVisits = Math.log(Math.max(1, current < 0 ? 0 : table.getVisits(current)));
+
+		int best = -1;
+		double bestValue = Double.NEGATIVE_INFINITY;
+		int unvisited = 0;
+		for(int i=0; i<moves.size(); i++) {
+			Move move = PackedMove.toMove(searchState, moves.get(i));
+			Utils.make(searchState, move, undo);
+			int child = table.find(searchState.getHash());
+			Utils.unmake(searchState, move, undo);
+
+			if(child < 0 || table.getVisits(child) == 0) {
+				// reservoir sampling over the unvisited positions
+				if(EngineContext.current().getRandom().nextInt(++unvisited) == 0)
+					best = i;
+				continue;
+			}
+			if(unvisited > 0)
+				continue;
+			double visits = table.getVisits(child);
+			double wins = red ? table.getRedWins(child) : visits - table.getRedWins(child);
+			double value = wins / visits + C * Math.sqrt(logVisits / visits);
+			if(value > bestValue) {
+				bestValue = value;
+				best = i;
+			}
+		}
+		pickedUnvisited = unvisited > 0;
+		return best;
+	}
+
+	/**
+	 * @param depth index in {@link #pathHashes}
+	 * @return true if the position at depth already occurs earlier on the path
+	 */
+	private boolean onPath(int depth) {
+		for(int i=0; i<depth; i++)
+			if(pathHashes[i] == pathHashes[depth])
+				return true;
+		return false;
+	}
+
+	/**
+	 * @return the {@link PackedMove} of the root leading to the most visited position, -1 if there is none
+	 */
+	int bestRootMove() {
+		Utils.generateMoves(searchState, moves);
+		int best = -1;
+		int bestVisits = 0;
+		for(int i=0; i<moves.size(); i++) {
+			Move move = PackedMove.toMove(searchState, moves.get(i));
+			Utils.make(searchState, move, undo);
+			int child = table.find(searchState.getHash());
+			Utils.unmake(searchState, move, undo);
+			if(child >= 0 && table.getVisits(child) > bestVisits) {
+				bestVisits = table.getVisits(child);
+				best = moves.get(i);
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @return the team on turn at the root, {@link #searchState} is at the selected position while simulating
+	 */
+	@Override
+	boolean rootTeam() {
+		return rootTeam;
+	}
+
+	@Override
+	boolean searchesTreeNodes() {
+		return false;
+	}
+}
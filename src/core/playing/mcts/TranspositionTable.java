@@ -0,0 +1,146 @@
+package core.playing.mcts;
+
+import java.util.Arrays;
+
+import core.GameState;
+
+/**
+ * Bounded hash table of MCTS statistics per position, keyed by the Zobrist key of a {@link GameState}.
+ * The key includes the team on turn, the chase and repetition state and the chased fields, so positions only merge if the same Moves are possible.
+ * Open addressing with a short probe window, if the window is full the entry with the fewest visits gets replaced.
+ */
+public class TranspositionTable {
+	/**
+	 * Number of slots probed for a key
+	 */
+	private static final int PROBES = 8;
+	/**
+	 * Key of empty slots, a position with this key gets stored as {@link #ZERO_KEY}
+	 */
+	private static final long EMPTY = 0;
+	private static final long ZERO_KEY = 1;
+
+	private final long[] keys;
+	private final int[] visits;
+	/**
+	 * Simulations won by red through the position, fractional for cut off playouts
+	 */
+	private final float[] redWins;
+	private final int mask;
+	private int size;
+	private int replaced;
+
+	/**
+	 * @param capacity number of entries, gets rounded up to a power of two
+	 */
+	public TranspositionTable(int capacity) {
+		int slots = Integer.highestOneBit(Math.max(capacity, PROBES) - 1) << 1;
+		keys = new long[slots];
+		visits = new int[slots];
+		redWins = new float[slots];
+		mask = slots - 1;
+	}
+
+	/**
+	 * @param hash Zobrist key of a position
+	 * @return index of the entry of hash, -1 if there is none
+	 */
+	public int find(long hash) {
+		long key = hash == EMPTY ? ZERO_KEY : hash;
+		int slot = slot(key);
+		for(int i=0; i<PROBES; i++) {
+			int index = (slot + i) & mask;
+			if(keys[index] == key)
+				return index;
+			if(keys[index] == EMPTY)
+				return -1;
+		}
+		return -1;
+	}
+
+	/**
+	 * Finds the entry of hash or creates it, replaces the entry with the fewest visits in the probe window if the window is full.
+	 * @param hash Zobrist key of a position
+	 * @return index of the entry
+	 */
+	public int findOrInsert(long hash) {
+		long key = hash == EMPTY ? ZERO_KEY : hash;
+		int slot = slot(key);
+		int leastVisited = slot;
+		for(int i=0; i<PROBES; i++) {
+			int index = (slot + i) & mask;
+			if(keys[index] == key)
+				return index;
+			if(keys[index] == EMPTY) {
+				size++;
+				return insert(index, key);
+			}
+			if(visits[index] < visits[leastVisited])
+				leastVisited = index;
+		}
+		replaced++;
+		return insert(leastVisited, key);
+	}
+
+	private int insert(int index, long key) {
+		keys[index] = key;
+		visits[index] = 0;
+		redWins[index] = 0;
+		return index;
+	}
+
+	private int slot(long key) {
+		return (int) (key ^ (key >>> 32)) & mask;
+	}
+
+	/**
+	 * Adds one finished simulation to an entry
+	 * @param index entry index
+	 * @param redWon true if red won the simulation
+	 */
+	public void update(int index, boolean redWon) {
+		update(index, redWon ? 1f : 0f);
+	}
+
+	/**
+	 * Adds one simulation to an entry
+	 * @param index entry index
+	 * @param redWinValue 1 if red won the simulation, 0 if blue won, the win probability of red for a cut off playout
+	 */
+	public void update(int index, float redWinValue) {
+		visits[index]++;
+		redWins[index] += redWinValue;
+	}
+
+	public int getVisits(int index) {
+		return visits[index];
+	}
+
+	public float getRedWins(int index) {
+		return redWins[index];
+	}
+
+	/**
+	 * @return number of used entries
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return number of entries that got replaced by another position
+	 */
+	public int getReplaced() {
+		return replaced;
+	}
+
+	public int capacity() {
+		return keys.length;
+	}
+
+	public void clear() {
+		Arrays.fill(keys, EMPTY);
+		size = 0;
+		replaced = 0;
+	}
+}
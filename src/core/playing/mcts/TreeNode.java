@@ -1,27 +1,87 @@
 package core.playing.mcts;
 
-import java.util.HashMap;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import core.ByteMapper;
+import core.EngineContext;
 import core.GameState;
 import core.Move;
+import core.MoveBuffer;
+import core.PackedMove;
 import core.Utils;
 import core.playing.AI;
 import core.playing.heuristic.MoveHeuristic;
-import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import ui.UI;
 
+/**
+ * Node of the MCTS tree.
+ * Statistics are updated atomically and children get expanded race free, so several threads can search one tree,
+ * see {@link MCTS#useTreeParallel(int)}.
+ */
 public class TreeNode {
-	private int winsP1;
-	private int winsP2;
-	private int visitCount;
-	private float uct;
+	/**
+	 * Values of {@link #proof}, seen from the team that made the Move into the node
+	 */
+	public static final byte UNPROVEN = 0, PROVEN_WIN = 1, PROVEN_LOSS = 2;
+	private static final VarHandle WINS_P1;
+	private static final VarHandle WINS_P2;
+	private static final VarHandle VISIT_COUNT;
+	private static final VarHandle VIRTUAL_LOSS;
+	private static final VarHandle RAVE_VISITS;
+	private static final VarHandle RAVE_WINS;
+
+	static {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			WINS_P1 = lookup.findVarHandle(TreeNode.class, "winsP1", float.class);
+			WINS_P2 = lookup.findVarHandle(TreeNode.class, "winsP2", float.class);
+			VISIT_COUNT = lookup.findVarHandle(TreeNode.class, "visitCount", int.class);
+			VIRTUAL_LOSS = lookup.findVarHandle(TreeNode.class, "virtualLoss", int.class);
+			RAVE_VISITS = lookup.findVarHandle(TreeNode.class, "raveVisits", int.class);
+			RAVE_WINS = lookup.findVarHandle(TreeNode.class, "raveWins", float.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	/**
+	 * Wins of red and blue, fractional if a playout was cut off and decided by its win probability
+	 */
+	private volatile float winsP1;
+	private volatile float winsP2;
+	private volatile int visitCount;
+	/**
+	 * Number of threads currently searching below this node, each counts as a lost visit in {@link #getUCT(float)}
+	 */
+	private volatile int virtualLoss;
+	/**
+	 * All-moves-as-first statistics: simulations through the parent in which the parents team played this nodes Move
+	 * at any later point, and how many of them that team won
+	 */
+	private volatile int raveVisits;
+	private volatile float raveWins;
+	/**
+	 * MCTS-Solver result of this node for the team that made the Move into it, see {@link #solve()}
+	 */
+	private volatile byte proof = UNPROVEN;
+	private volatile float uct;
 
 	private GameState gameState;
 	private TreeNode parent;
 	private Map<Move, TreeNode> children;
 	private Move moveThatLedToThisNode;
-	private ObjectArrayList<Move> untriedMoves;
+	/**
+	 * moveThatLedToThisNode as {@link PackedMove} of the parents GameState, same for equal Moves in different trees
+	 */
+	private int packedMove;
+	/**
+	 * {@link PackedMove}s that have not been expanded yet, generated by {@link #untriedMoves()} when the node is first selected.
+	 * Nodes that only get simulated never generate their Moves.
+	 */
+	private volatile MoveBuffer untriedMoves;
 
 
 	/**
@@ -34,9 +94,8 @@ public class TreeNode {
 		this.gameState = gameState;
 		this.parent = parent;
 		this.moveThatLedToThisNode = moveThatLedToThisNode;
-		this.children = new HashMap<>();
+		this.children = new ConcurrentHashMap<>();
 		
-		this.untriedMoves = Utils.getAllPossibleMoves(gameState);
 		this.winsP1 = 1;
 		this.winsP2 = 1;
 		this.visitCount = 2;
@@ -69,20 +128,148 @@ public class TreeNode {
 		return bestChild;
 	}
 
+	/**
+	 * Selects the best child node based on the UCT formula, counting virtual losses.
+	 * Use while several threads search the tree.
+	 * @param C exploration constant
+	 * @return The best child node to explore further, null if no child has been added yet
+	 */
+	public TreeNode bestChild(float C) {
+		TreeNode bestChild = null;
+		float bestValue = Float.NEGATIVE_INFINITY;
+		for (TreeNode child : children.values()) {
+			float uctValue = child.getUCT(C);
+			if (uctValue > bestValue) {
+				bestValue = uctValue;
+				bestChild = child;
+			}
+		}
+
+		return bestChild;
+	}
+
+	/**
+	 * Like {@link #bestChild()}, but skips children that are proven losses for the team on turn here.
+	 * @return the best child that is not a proven loss, {@link #bestChild()} if there is none
+	 */
+	public TreeNode bestUnprovenChild() {
+		TreeNode bestChild = null;
+		float bestValue = Float.NEGATIVE_INFINITY;
+		for (TreeNode child : children.values()) {
+			float uctValue = child.getUCT();
+			if (child.proof != PROVEN_LOSS && uctValue > bestValue) {
+				bestValue = uctValue;
+				bestChild = child;
+			}
+		}
+		return bestChild != null ? bestChild : bestChild();
+	}
+
+	/**
+	 * Proves this node with minimax rules of the MCTS-Solver:
+	 * a terminal node with a winner is a proven win or loss, a node is a proven loss if the team on turn has a proven winning Move,
+	 * and a proven win if all Moves of the team on turn are expanded and proven losses for it.
+	 * Draws and heuristic results are never proven.
+	 * @return true if this node is proven
+	 */
+	public boolean solve() {
+		if(proof != UNPROVEN)
+			return true;
+		boolean mover = !gameState.getTeam();
+		if(isTerminal()) {
+			int winner = Utils.getWinner(gameState);
+			if(winner == 0 || winner == 1)
+				proof = (winner == 0) == mover ? PROVEN_WIN : PROVEN_LOSS;
+			return proof != UNPROVEN;
+		}
+
+		boolean allLost = isFullyExpanded() && !children.isEmpty();
+		for(TreeNode child : children.values()) {
+			if(child.proof == PROVEN_WIN) {
+				proof = PROVEN_LOSS;
+				return true;
+			}
+			allLost &= child.proof == PROVEN_LOSS;
+		}
+		if(allLost)
+			proof = PROVEN_WIN;
+		return allLost;
+	}
+
 	/**
 	 * Expands the current node by creating one child node for a randomly chosen untried move.
-	 * @return newly expanded child node
+	 * Only one thread at a time can take an untried move, every move gets expanded once.
+	 * @return newly expanded child node, null if another thread took the last untried move
 	 */
 	public TreeNode expand(boolean useHeuristic, MoveHeuristic mvh) {
-		GameState nextState = gameState.clone();
+		MoveBuffer untriedMoves = untriedMoves();
+		int picked;
+		synchronized (untriedMoves) {
+			if(untriedMoves.isEmpty())
+				return null;
+			if(useHeuristic) {
+				picked = mvh.getBestMove(untriedMoves, gameState);
+				for(int i=0; i<untriedMoves.size(); i++)
+					if(untriedMoves.get(i) == picked) {
+						untriedMoves.removeAt(i);
+						break;
+					}
+			} else
+				picked = untriedMoves.removeAt(EngineContext.current().getRandom().nextInt(untriedMoves.size()));
+		}
+		return addChild(picked);
+	}
 
-		Move picked;
-		if(useHeuristic)
-			picked = mvh.getBestMove(untriedMoves, nextState);
-		else
-			picked = untriedMoves.remove(MCTS.rand.nextInt(untriedMoves.size()));
+	/**
+	 * Expands the untried Move with the highest {@link #prior(GameState, int)}, ties are broken randomly.
+	 * Used with progressive widening, the few children a node may have are the most promising ones.
+	 * @return newly expanded child node, null if another thread took the last untried move
+	 */
+	public TreeNode expandByPrior() {
+		MoveBuffer untriedMoves = untriedMoves();
+		int picked;
+		synchronized (untriedMoves) {
+			if(untriedMoves.isEmpty())
+				return null;
+			int best = 0;
+			int bestPrior = -1;
+			int ties = 0;
+			for(int i=0; i<untriedMoves.size(); i++) {
+				int prior = prior(gameState, untriedMoves.get(i));
+				if(prior > bestPrior) {
+					bestPrior = prior;
+					best = i;
+					ties = 1;
+				} else if(prior == bestPrior && EngineContext.current().getRandom().nextInt(++ties) == 0)
+					best = i;
+			}
+			picked = untriedMoves.removeAt(best);
+		}
+		return addChild(picked);
+	}
 
-		Move move = picked.normalize(nextState);
+	/**
+	 * Cheap Move ordering without Move objects: attacks first, then single steps, long Scout Moves last.
+	 * @param state GameState the Move is made in
+	 * @param move {@link PackedMove}
+	 * @return 2 for attacks, 1 for one field steps, 0 otherwise
+	 */
+	static int prior(GameState state, int move) {
+		byte end = PackedMove.getEnd(move);
+		if(state.inspect(ByteMapper.getX(end), ByteMapper.getY(end)) != null)
+			return 2;
+		return PackedMove.getFields(move) == 1 ? 1 : 0;
+	}
+
+	/**
+	 * Executes picked on a clone of this nodes GameState and adds the child for it
+	 * @param picked {@link PackedMove} taken from the untried Moves
+	 * @return the new child
+	 */
+	private TreeNode addChild(int picked) {
+		GameState nextState = gameState.clone();
+
+		Move move = PackedMove.toMove(nextState, picked);
 
 		if(!Utils.execute(nextState, move)) {
 			UI ui = new UI(AI.Type.HUMAN, AI.Type.HUMAN);
@@ -92,31 +279,100 @@ public class TreeNode {
 		}
 
 		TreeNode childNode = new TreeNode(nextState, this, move);
+		childNode.packedMove = picked;
 		children.put(move, childNode); 
 
 		return childNode;
 	}
 
 	public void backpropagate(boolean winner, float C) {
+		backpropagate(winner ? 1f : 0f, C, 0);
+	}
+
+	/**
+	 * Backpropagates a finished simulation like {@link #backpropagate(float, float, float)}
+	 * @param winner True if Red won the simulation
+	 */
+	public void backpropagate(boolean winner, float C, float raveEquivalence) {
+		backpropagate(winner ? 1f : 0f, C, raveEquivalence);
+	}
+
+	/**
+	 * Backpropagates with UCT values blended with the RAVE statistics.
+	 * @param redWinValue 1 if Red won the simulation, 0 if Blue won, the win probability of Red for a cut off playout
+	 * @param C exploration constant
+	 * @param raveEquivalence visits at which real and RAVE statistics weigh about the same, 0 ignores RAVE
+	 */
+	public void backpropagate(float redWinValue, float C, float raveEquivalence) {
 		TreeNode parent = this;
 		while(parent != null) {
-			parent.updateWins(winner);
-			parent.updateUct(C);
+			parent.updateWins(redWinValue);
+			parent.updateUct(C, raveEquivalence);
 			parent = parent.parent;
 		}
 	}
-	
+
+	public void updateRave(boolean winner, float C, float raveEquivalence) {
+		updateRave(winner ? 1f : 0f, C, raveEquivalence);
+	}
+
 	/**
-	 * Updates this node's statistics during backpropagation.
-	 * @param winnerTeam True if Red won the simulation, False if Blue won.
+	 * Counts one simulation in which the parents team played this nodes Move, see {@link #raveVisits}
+	 * @param redWinValue see {@link #backpropagate(float, float, float)}
+	 * @param C exploration constant
+	 * @param raveEquivalence see {@link #backpropagate(float, float, float)}
 	 */
-	private void updateWins(boolean winner) {
-		if(winner) {
-			winsP1++;
-		} else {
-			winsP2++;
+	public void updateRave(float redWinValue, float C, float raveEquivalence) {
+		RAVE_VISITS.getAndAdd(this, 1);
+		RAVE_WINS.getAndAdd(this, gameState.getTeam() ? 1 - redWinValue : redWinValue);
+		updateUct(C, raveEquivalence);
+	}
+
+	public void backpropagateVirtual(boolean winner, float C) {
+		backpropagateVirtual(winner ? 1f : 0f, C);
+	}
+
+	/**
+	 * Backpropagates like {@link #backpropagate(float, float, float)} and takes back the virtual losses of {@link #addVirtualLoss()} on the way.
+	 * @param redWinValue see {@link #backpropagate(float, float, float)}
+	 * @param C exploration constant
+	 */
+	public void backpropagateVirtual(float redWinValue, float C) {
+		TreeNode parent = this;
+		while(parent != null) {
+			VIRTUAL_LOSS.getAndAdd(parent, -1);
+			parent.updateWins(redWinValue);
+			parent.updateUct(C, 0);
+			parent = parent.parent;
 		}
-		visitCount++;
+	}
+
+	/**
+	 * Marks a thread searching below this node, the node looks worse to the other threads till {@link #backpropagateVirtual(float, float)}.
+	 */
+	public void addVirtualLoss() {
+		VIRTUAL_LOSS.getAndAdd(this, 1);
+	}
+
+	/**
+	 * Updates this node's statistics during backpropagation.
+	 * @param redWinValue share of the visit won by Red, the rest is won by Blue
+	 */
+	private void updateWins(float redWinValue) {
+		if(redWinValue > 0)
+			WINS_P1.getAndAdd(this, redWinValue);
+		if(redWinValue < 1)
+			WINS_P2.getAndAdd(this, 1 - redWinValue);
+		VISIT_COUNT.getAndAdd(this, 1);
+	}
+
+	/**
+	 * Makes this node a root, the old tree above it can be garbage collected
+	 */
+	void detach() {
+		parent = null;
+		moveThatLedToThisNode = null;
+		packedMove = 0;
 	}
 
 	public GameState getGameState() {
@@ -135,12 +391,55 @@ public class TreeNode {
 		return moveThatLedToThisNode;
 	}
 
-	public ObjectArrayList<Move> getUntriedMoves() {
-		return untriedMoves;
+	/**
+	 * @return the {@link PackedMove} that led to this node, 0 for a root
+	 */
+	public int getPackedMove() {
+		return packedMove;
+	}
+
+	public MoveBuffer getUntriedMoves() {
+		return untriedMoves();
+	}
+
+	/**
+	 * Generates the untried Moves on the first call
+	 * @return {@link #untriedMoves}
+	 */
+	private MoveBuffer untriedMoves() {
+		MoveBuffer moves = untriedMoves;
+		if(moves == null) {
+			synchronized (this) {
+				moves = untriedMoves;
+				if(moves == null) {
+					moves = new MoveBuffer(16);
+					Utils.generateMoves(gameState, moves);
+					untriedMoves = moves;
+				}
+			}
+		}
+		return moves;
+	}
+
+	/**
+	 * @return true if the untried Moves of this node have been generated
+	 */
+	boolean hasGeneratedMoves() {
+		return untriedMoves != null;
 	}
 
 	public boolean isFullyExpanded() {
-		return untriedMoves.isEmpty();
+		return untriedMoves().isEmpty();
+	}
+
+	/**
+	 * Progressive widening: a node may have ceil(factor * visits^exponent) children, more get admitted as its visit count grows.
+	 * @param factor number of children at one visit
+	 * @param exponent growth of the allowed children with the visits, 0 to 1
+	 * @return true if no child can be added at the current visit count
+	 */
+	public boolean isWidened(float factor, float exponent) {
+		return isFullyExpanded() || children.size() >= Math.ceil(factor * Math.pow(visitCount, exponent));
 	}
 
 	public boolean isTerminal() {
@@ -164,7 +463,7 @@ public class TreeNode {
 	 * @return V value for UCT
 	 */
 	public float getV() {
-		return !gameState.getTeam() ? (float)winsP1 / getNK() : (float)winsP2 / getNK();
+		return !gameState.getTeam() ? winsP1 / getNK() : winsP2 / getNK();
 	}
 
 	/**
@@ -174,6 +473,23 @@ public class TreeNode {
 		return this.uct;
 	}
 
+	/**
+	 * Calculates the UCT value with the current statistics, virtual losses count as visits without a win.
+	 * @param C exploration constant
+	 * @return UCT value of this node
+	 */
+	public float getUCT(float C) {
+		if(parent == null)
+			return Float.MAX_VALUE;
+		float nk = visitCount + virtualLoss;
+		float v = (!gameState.getTeam() ? winsP1 : winsP2) / nk;
+		return v + C * (float)Math.sqrt((float)Math.log(parent.visitCount + parent.virtualLoss) / nk);
+	}
+
+	public int getVirtualLoss() {
+		return virtualLoss;
+	}
+
 	/**
 	 * prints the node and its important attributes to the console
 	 */
@@ -187,18 +503,51 @@ public class TreeNode {
 		System.out.println("\n---*\t\t*---");
 	}
 
-	public int getWinsP1() {
+	public float getWinsP1() {
 		return winsP1;
 	}
 
-	public int getWinsP2() {
+	public float getWinsP2() {
 		return winsP2;
 	}
 
-	private void updateUct(float C) {
+	public byte getProof() {
+		return proof;
+	}
+
+	public boolean isProven() {
+		return proof != UNPROVEN;
+	}
+
+	/**
+	 * @return true if red wins the proven result of this node
+	 */
+	public boolean provenRedWins() {
+		return (proof == PROVEN_WIN) == !gameState.getTeam();
+	}
+
+	public int getRaveVisits() {
+		return raveVisits;
+	}
+
+	public float getRaveWins() {
+		return raveWins;
+	}
+
+	/**
+	 * With RAVE the win rate is blended with the RAVE win rate by beta = sqrt(k / (3 * nk + k)),
+	 * which starts at 1 and decays the more often this node gets visited itself.
+	 * @param C exploration constant
+	 * @param raveEquivalence k, 0 ignores RAVE
+	 */
+	private void updateUct(float C, float raveEquivalence) {
 		if(parent != null) {
 			float nk = getNK();
 			float v = !gameState.getTeam() ? winsP1 / nk : winsP2 / nk;
+			if(raveEquivalence > 0 && raveVisits > 0) {
+				float beta = (float)Math.sqrt(raveEquivalence / (3 * nk + raveEquivalence));
+				v = (1 - beta) * v + beta * raveWins / raveVisits;
+			}
 			uct = v + C * (float)Math.sqrt((float)Math.log(parent.getNK()) / nk);
 		}
 	}
@@ -3,9 +3,11 @@ package core.playing.random;
 import java.util.SplittableRandom;
 
 import core.Direction;
+import core.EngineContext;
 import core.GameState;
 import core.Move;
 import core.Piece;
+import core.PieceType;
 import core.playing.AI;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 
@@ -13,13 +15,8 @@ import it.unimi.dsi.fastutil.objects.ObjectArrayList;
  * AI that returns random Moves
  */
 public class RandomAI extends AI {
-	static SplittableRandom random = new SplittableRandom();
-
-	
 	ObjectArrayList<Piece> pieces = new ObjectArrayList<Piece>(8);
 	ObjectArrayList<int[]> dirMap = new ObjectArrayList<int[]>();
-	static ObjectArrayList<Piece> staticPieces = new ObjectArrayList<Piece>(8);
-	static ObjectArrayList<int[]> staticDirMap = new ObjectArrayList<int[]>();
 
 	public RandomAI(boolean team, GameState gameState) {
 		super(team, gameState);
@@ -36,51 +33,62 @@ public class RandomAI extends AI {
 	 */
 	@Override
 	public Move nextMove() {
-		Move move = null;
-		pieces.clear();
-		for(int i=0; i<7; i++)
-			if(gameState.getCurrentPieces()[i] != null 
-			&& gameState.getCurrentPieces()[i].getType().getMoves() > 0) 
-				pieces.add(gameState.getCurrentPieces()[i]);
-		
-		do {
-			Piece picked = pieces.get(random.nextInt(pieces.size()));
-			Direction dir = Direction.get(random.nextInt(4));
-			int fields = random.nextInt(picked.getType().getMoves()) + 1;
-			
-			if(!isMovePossible(gameState, picked, Move.calcEndX(picked.getX(), dir, fields), Move.calcEndY(picked.getY(), dir, fields), dir, fields))
-				continue;
-			
-			move = new Move(picked, dir, fields);
-		} while (move == null);
-
-		return move;
+		return nextMove(gameState);
 	}
 	
 	/**
 	 * {@link #nextMove()} but static.
+	 * Samples directly from the Pieces reaches, which come from the {@link core.Bitboard} ray tables.
+	 * Every possible Move of a Piece gets {@link #weight(Piece)}, 
+	 * so the Moves are as likely as when picking a random Piece, Direction and fields until the Move is possible.
 	 * @param state
-	 * @return
+	 * @return a random valid Move, null if no Move is possible
 	 */
 	public static Move nextMove(GameState state) {
-		Move move = null;
-		staticPieces.clear();
-		for(int i=0; i<7; i++)
-			if(state.getCurrentPieces()[i] != null) 
-				staticPieces.add(state.getCurrentPieces()[i]);
-		
+		int total = 0;
+		for(Piece piece : state.getCurrentPieces())
+			if(piece != null && piece.getType().getMoves() > 0)
+				for(int direction=0; direction<4; direction++)
+					total += reach(state, piece, direction) * weight(piece);
+		if(total == 0)
+			return null;
+
+		SplittableRandom random = EngineContext.current().getRandom();
+		boolean rulesActive = rulesActive(state);
+		Move move;
 		do {
-			Piece picked = staticPieces.get(random.nextInt(staticPieces.size()));
-			Direction dir = Direction.get(random.nextInt(4));
-			int fields = random.nextInt(picked.getType().getMoves()) + 1;
-			
-			if(!isMovePossible(state, picked, Move.calcEndX(picked.getX(), dir, fields), Move.calcEndY(picked.getY(), dir, fields), dir, fields))
-				continue;
+			move = pickWeighted(state, random.nextInt(total));
+		} while(rulesActive && ruleViolated(state, move.getPiece(), move.getEndX(), move.getEndY()));
+		return move;
+	}
 
-			move = new Move(picked, dir, fields);
-		} while (move == null);
+	/**
+	 * Walks the weighted Moves of state until pick is used up
+	 * @param state
+	 * @param pick random int smaller than the sum of all weights
+	 * @return the picked Move
+	 */
+	private static Move pickWeighted(GameState state, int pick) {
+		for(Piece piece : state.getCurrentPieces()) {
+			if(piece == null || piece.getType().getMoves() == 0) continue;
+			int weight = weight(piece);
+			for(int direction=0; direction<4; direction++) {
+				int directionWeight = reach(state, piece, direction) * weight;
+				if(pick < directionWeight)
+					return new Move(piece, Direction.get(direction), pick / weight + 1);
+				pick -= directionWeight;
+			}
+		}
+		return null;
+	}
 
-		return move;
+	/**
+	 * Pieces that can walk further have more Moves, each of their Moves gets less weight.
+	 * @param piece
+	 * @return weight of every Move of piece
+	 */
+	private static int weight(Piece piece) {
+		return PieceType.SPAEHER.getMoves() / piece.getType().getMoves();
 	}
 	
 	/**
@@ -92,7 +100,9 @@ public class RandomAI extends AI {
 	 */
 	public static Move nextMoveComplex(GameState state) {
 		Move move = null;
-		staticPieces.clear();
+		ObjectArrayList<Piece> staticPieces = new ObjectArrayList<Piece>(8);
+		ObjectArrayList<int[]> staticDirMap = new ObjectArrayList<int[]>();
+		SplittableRandom random = EngineContext.current().getRandom();
 
 		for(int i=0; i<7; i++)
 			if(state.getCurrentPieces()[i] != null 
@@ -126,6 +136,7 @@ public class RandomAI extends AI {
 	 */
 	public Move nextMoveComplex() {
 		Move move = null;
+		SplittableRandom random = EngineContext.current().getRandom();
 		pieces.clear();
 
 		for(int i=0; i<7; i++)
@@ -157,7 +168,7 @@ public class RandomAI extends AI {
 	 * @return a Move created by a random direction-reach pair from dirMap
 	 */
 	public static Move getDirectionMove(ObjectArrayList<int[]> dirMap, Piece picked) {
-		int[] directionFields = dirMap.get(random.nextInt(dirMap.size()));
+		int[] directionFields = dirMap.get(EngineContext.current().getRandom().nextInt(dirMap.size()));
 		dirMap.remove(directionFields);
 		return new Move(picked, Direction.get(directionFields[0]), directionFields[1]);
 	}
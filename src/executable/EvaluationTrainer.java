@@ -0,0 +1,106 @@
+package executable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import core.EngineContext;
+import core.GameState;
+import core.Move;
+import core.Utils;
+import core.placing.Placer;
+import core.playing.heuristic.LinearEvaluation;
+import core.playing.random.RandomAI;
+
+/**
+ * Fits the {@link LinearEvaluation#WEIGHTS} to self-play outcomes.
+ * Both teams play random Moves, like the MCTS playouts, every {@link #SAMPLE_EVERY}th GameState of a game is a sample
+ * labeled with the winner of the game. Draws and games longer than {@link #MAX_PLIES} are skipped.
+ * The weights are fitted by stochastic gradient descent on the log loss and printed as Java array.
+ * A sample holds the {@link LinearEvaluation#FEATURES} features followed by the label, 1 if red won.
+ */
+public class EvaluationTrainer {
+	static final int SAMPLE_EVERY = 5;
+	static final int MAX_PLIES = 2000;
+
+	public static void main(String[] args) {
+		EngineContext.set(new EngineContext(1));
+		ArrayList<float[]> samples = new ArrayList<float[]>();
+		ArrayList<float[]> testSamples = new ArrayList<float[]>();
+		for(Placer.Type type : new Placer.Type[] {Placer.Type.PREBUILT, Placer.Type.RANDOM, Placer.Type.DEBOER}) {
+			playGames(type, 10_000, samples);
+			playGames(type, 1_000, testSamples);
+		}
+
+		float[] weights = train(samples, 20, 0.01f);
+		System.out.println(samples.size() + " samples, test log loss " + logLoss(weights, testSamples)
+				+ ", constant 0.5 log loss " + Math.log(2));
+		System.out.println(Arrays.toString(weights).replace("[", "{").replace("]", "}").replace(",", "f,").replace("}", "f}"));
+	}
+
+	/**
+	 * Plays random games and adds their samples
+	 * @param type setup of both teams
+	 * @param games number of games to play
+	 * @param samples gets the samples of the games
+	 */
+	public static void playGames(Placer.Type type, int games, ArrayList<float[]> samples) {
+		ArrayList<float[]> gameSamples = new ArrayList<float[]>();
+		for(int game=0; game<games; game++) {
+			GameState state = new GameState(Placer.placePiecesWith(true, type), Placer.placePiecesWith(false, type));
+			gameSamples.clear();
+			int ply = 0;
+			while(!Utils.isGameOver(state) && ply < MAX_PLIES) {
+				if(ply++ % SAMPLE_EVERY == 0) {
+					float[] sample = new float[LinearEvaluation.FEATURES + 1];
+					LinearEvaluation.features(state, sample);
+					gameSamples.add(sample);
+				}
+				Move move = RandomAI.nextMove(state);
+				if(move == null)
+					break;
+				Utils.execute(state, move);
+			}
+
+			int winner = Utils.getWinner(state);
+			if(winner > 1)
+				continue;
+			for(float[] sample : gameSamples)
+				sample[LinearEvaluation.FEATURES] = winner == 0 ? 1 : 0;
+			samples.addAll(gameSamples);
+		}
+	}
+
+	/**
+	 * Logistic regression by stochastic gradient descent
+	 * @param samples labeled samples
+	 * @param epochs passes over the samples
+	 * @param learningRate step size of the first epoch, decays with 1 / epoch
+	 * @return fitted weights
+	 */
+	public static float[] train(ArrayList<float[]> samples, int epochs, float learningRate) {
+		float[] weights = new float[LinearEvaluation.FEATURES];
+		for(int epoch=1; epoch<=epochs; epoch++) {
+			for(int i=samples.size()-1; i>0; i--)
+				samples.set(i, samples.set(EngineContext.current().getRandom().nextInt(i + 1), samples.get(i)));
+			float rate = learningRate / epoch;
+			for(float[] sample : samples) {
+				float error = LinearEvaluation.probability(weights, sample) - sample[LinearEvaluation.FEATURES];
+				for(int f=0; f<LinearEvaluation.FEATURES; f++)
+					weights[f] -= rate * error * sample[f];
+			}
+		}
+		return weights;
+	}
+
+	/**
+	 * @return average log loss of weights on samples
+	 */
+	public static double logLoss(float[] weights, ArrayList<float[]> samples) {
+		double loss = 0;
+		for(float[] sample : samples) {
+			double p = Math.min(1 - 1e-6, Math.max(1e-6, LinearEvaluation.probability(weights, sample)));
+			loss -= sample[LinearEvaluation.FEATURES] == 1 ? Math.log(p) : Math.log(1 - p);
+		}
+		return loss / Math.max(1, samples.size());
+	}
+}
@@ -0,0 +1,167 @@
+package executable;
+
+import java.nio.ByteBuffer;
+import java.util.HexFormat;
+
+import core.EngineContext;
+import core.GameState;
+import core.GameStateCodec;
+import core.Move;
+import core.MoveBuffer;
+import core.PackedMove;
+import core.UndoStack;
+import core.Utils;
+import core.placing.Placer;
+
+/**
+ * Perft (performance test) for Quick Battle move generation.
+ * Counts the leaf nodes of the full game tree up to a depth, including the two-squares and more-squares rules tracked in {@link GameState}.
+ * Finished games (see {@link Utils#getWinner(GameState)}) are not expanded any further.
+ * The counts of the start positions are compared to stored reference counts,
+ * so engine changes can be validated for exact rule behavior and measured for speed in the same run.
+ */
+public class Perft {
+	/**
+	 * Fixed mid- and endgame positions, {@link GameStateCodec} encoded as hex.
+	 * All of them have active repetition rules and chased fields.
+	 */
+	static final String[] FIXED_POSITIONS = {
+			"06151200c08040f81706670534043604038374032502570146014700440600053204520412836383700220013101300005677767020183636763000400016367",
+			"072532216004400c06066705250452040583ff00ff0057014601470062060405640432046083ff00500220013101300004526252020106626362000100015262",
+			"06154423100c100627066605ff0042840183ff00250257014601470041060005ff0051041583ff00ff0020013101300084424342000106414241000100014142",
+	};
+	/**
+	 * Seeds of the {@link EngineContext} used to place both teams with {@link Placer.Type#RANDOM}
+	 */
+	static final long[] RANDOM_SEEDS = { 1, 2 };
+	/**
+	 * Reference counts for depth 1 to 4 of every position of {@link #positions()}, in the same order
+	 */
+	static final long[][] REFERENCE_COUNTS = {
+			{ 26, 670, 16332, 398110 },
+			{ 21, 336, 7410, 132750 },
+			{ 20, 499, 9896, 244893 },
+			{ 30, 890, 25430, 731411 },
+			{ 12, 204, 2765, 48635 },
+			{ 16, 363, 5946, 120187 },
+	};
+
+	public static void main(String[] args) {
+		int depth = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+		GameState[] positions = positions();
+		String[] names = names();
+		boolean allMatch = true;
+		for(int i=0; i<positions.length; i++) {
+			System.out.println(names[i]);
+			for(int d=1; d<=depth; d++) {
+				long start = System.nanoTime();
+				long nodes = perft(positions[i].clone(), d);
+				long cloneTime = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				long madeNodes = perftMake(positions[i].clone(), d);
+				long makeTime = System.nanoTime() - start;
+
+				String result;
+				if(nodes != madeNodes)
+					result = "MISMATCH make/unmake " + madeNodes;
+				else if(d > REFERENCE_COUNTS[i].length)
+					result = "no reference";
+				else if(REFERENCE_COUNTS[i][d-1] != nodes)
+					result = "MISMATCH reference " + REFERENCE_COUNTS[i][d-1];
+				else
+					result = "ok";
+				allMatch &= result.equals("ok") || result.equals("no reference");
+
+				System.out.println(String.format("  depth %d: %,15d nodes  clone %,12.0f nodes/s  make/unmake %,12.0f nodes/s  %s",
+						d, nodes, nodesPerSecond(nodes, cloneTime), nodesPerSecond(nodes, makeTime), result));
+			}
+		}
+		System.out.println(allMatch ? "all counts match" : "counts do not match");
+	}
+
+	/**
+	 * Counts the leaf nodes below state by cloning it for every Move, using {@link Utils#getAllPossibleMoves(GameState)} and {@link Utils#execute(GameState, Move)}.
+	 * This is the reference implementation.
+	 * @param state GameState to start from
+	 * @param depth number of plies to search
+	 * @return number of GameStates reachable in exactly depth plies
+	 */
+	public static long perft(GameState state, int depth) {
+		if(depth == 0)
+			return 1;
+		if(Utils.getWinner(state) != 3)
+			return 0;
+		long nodes = 0;
+		for(Move move : Utils.getAllPossibleMoves(state)) {
+			GameState next = state.clone();
+			Utils.execute(next, PackedMove.toMove(next, PackedMove.fromMove(state, move)));
+			nodes += perft(next, depth - 1);
+		}
+		return nodes;
+	}
+
+	/**
+	 * Counts the leaf nodes below state with {@link Utils#generateMoves(GameState, MoveBuffer)}, {@link Utils#make(GameState, Move, UndoStack)}
+	 * and {@link Utils#unmake(GameState, Move, UndoStack)}, state is the same as before afterwards.
+	 * @param state GameState to start from
+	 * @param depth number of plies to search
+	 * @return number of GameStates reachable in exactly depth plies
+	 */
+	public static long perftMake(GameState state, int depth) {
+		MoveBuffer[] buffers = new MoveBuffer[depth];
+		for(int i=0; i<depth; i++)
+			buffers[i] = new MoveBuffer();
+		return perftMake(state, depth, buffers, new UndoStack(depth));
+	}
+
+	private static long perftMake(GameState state, int depth, MoveBuffer[] buffers, UndoStack undo) {
+		if(depth == 0)
+			return 1;
+		if(Utils.getWinner(state) != 3)
+			return 0;
+		MoveBuffer moves = buffers[depth - 1];
+		Utils.generateMoves(state, moves);
+		long nodes = 0;
+		for(int i=0; i<moves.size(); i++) {
+			Move move = PackedMove.toMove(state, moves.get(i));
+			Utils.make(state, move, undo);
+			nodes += perftMake(state, depth - 1, buffers, undo);
+			Utils.unmake(state, move, undo);
+		}
+		return nodes;
+	}
+
+	/**
+	 * @return the prebuilt start position, the random placements of {@link #RANDOM_SEEDS} and the {@link #FIXED_POSITIONS}
+	 */
+	public static GameState[] positions() {
+		GameState[] positions = new GameState[1 + RANDOM_SEEDS.length + FIXED_POSITIONS.length];
+		int i = 0;
+		positions[i++] = new GameState(Placer.placePiecesWith(true, Placer.Type.PREBUILT), Placer.placePiecesWith(false, Placer.Type.PREBUILT));
+		EngineContext previous = EngineContext.current();
+		for(long seed : RANDOM_SEEDS) {
+			EngineContext.set(new EngineContext(seed));
+			positions[i++] = new GameState(Placer.placePiecesWith(true, Placer.Type.RANDOM), Placer.placePiecesWith(false, Placer.Type.RANDOM));
+		}
+		EngineContext.set(previous);
+		for(String hex : FIXED_POSITIONS)
+			positions[i++] = GameStateCodec.decode(ByteBuffer.wrap(HexFormat.of().parseHex(hex)));
+		return positions;
+	}
+
+	private static String[] names() {
+		String[] names = new String[1 + RANDOM_SEEDS.length + FIXED_POSITIONS.length];
+		int i = 0;
+		names[i++] = "prebuilt";
+		for(long seed : RANDOM_SEEDS)
+			names[i++] = "random placement, seed " + seed;
+		for(int j=0; j<FIXED_POSITIONS.length; j++)
+			names[i++] = "fixed position " + (j + 1);
+		return names;
+	}
+
+	private static double nodesPerSecond(long nodes, long nanos) {
+		return nodes * 1e9 / Math.max(nanos, 1);
+	}
+}
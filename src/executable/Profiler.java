@@ -1,9 +1,12 @@
 package executable;
+import java.util.Arrays;
+
 import org.openjdk.jol.info.ClassLayout;
 import org.openjdk.jol.info.GraphLayout;
 
 import core.Direction;
 import core.GameState;
+import core.Mediator;
 import core.Move;
 import core.Piece;
 import core.PieceType;
@@ -11,6 +14,7 @@ import core.Utils;
 import core.placing.Placer;
 import core.playing.AI;
 import core.playing.heuristic.HeuristicAI;
+import core.playing.mcts.MCTS;
 import core.playing.mcts.TreeNode;
 import core.playing.random.RandomAI;
 
@@ -34,6 +38,7 @@ public class Profiler {
 //		nextMoves(ai, 1000000);
 //		((HeuristicAI)ai).disableTerminalHeuristic();
 //		nextMoves(ai, 1000000);
+//		moveTimeOvershoot(300, 100);
 	}
 
 	public static void nextMoves(AI ai, int repetitions) {
@@ -45,6 +50,42 @@ public class Profiler {
 		System.out.println(String.format("%,d", (end - start)) + " ms for " +String.format("%,d", (repetitions))+ " repetitions");
 	}
 
+	/**
+	 * Measures how far {@link MCTS#nextMove()} overshoots its search time.
+	 * MCTS plays red against {@link RandomAI}, a new game starts when one ends.
+	 * Prints the 50th and 99th percentile and the maximum of the overshoot.
+	 * @param moves number of MCTS Moves to measure
+	 * @param timeInMs search time per Move, see {@link MCTS#setTimeInMs(int)}
+	 */
+	public static void moveTimeOvershoot(int moves, int timeInMs) {
+		double[] overshoots = new double[moves];
+		Mediator mediator = null;
+		MCTS mcts = null;
+		for(int i=0; i<moves; ) {
+			if(mediator == null || mediator.isGameOver()) {
+				mediator = new Mediator(new GameState(Placer.placePiecesWith(true, Placer.Type.RANDOM), Placer.placePiecesWith(false, Placer.Type.RANDOM)));
+				mcts = new MCTS(true, mediator.obfuscateFor(true));
+				mcts.setTimeInMs(timeInMs);
+			}
+			Move move;
+			if(mediator.getCurrentTeam()) {
+				long start = System.nanoTime();
+				move = mcts.nextMove();
+				overshoots[i++] = (System.nanoTime() - start) / 1e6 - timeInMs;
+			} else
+				move = RandomAI.nextMove(mediator.getGameState());
+			if(!mediator.makeMove(move)) {
+				mediator = null;
+				continue;
+			}
+			mcts.update(mediator.getAIInformer(true));
+		}
+
+		Arrays.sort(overshoots);
+		System.out.println(String.format("overshoot of %,d moves at %d ms: p50 %.2f ms, p99 %.2f ms, max %.2f ms", moves, timeInMs,
+				overshoots[moves / 2], overshoots[Math.min(moves - 1, (int) Math.ceil(moves * 0.99) - 1)], overshoots[moves - 1]));
+	}
+
 	/**
 	 * Prints out a classes memory Footprint
 	 * @param c Class to analyze
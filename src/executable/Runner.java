@@ -2,6 +2,7 @@ package executable;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import javax.swing.SwingUtilities;
 
@@ -30,7 +31,6 @@ public class Runner {
 			HashMap<Integer, Double> blueOnMoveGuessingAccuracy, 
 			long nanoTime
 			) {};
-	public static ArrayList<WinnerEntry> winList = new ArrayList<WinnerEntry>();
 	public static UI ui;
 	public static boolean ui_initialized = false; 
 	public static boolean printGame;
@@ -51,8 +51,7 @@ public class Runner {
 		
 		MCTS.printResultsToConsole = true;
 
-		simulate(simulations, redPlacement, redPlayer, bluePlacement, bluePlayer, UI_delay);
-		printResults();
+		printResults(simulate(simulations, redPlacement, redPlayer, bluePlacement, bluePlayer, UI_delay));
 	}
 
 	/**
@@ -64,9 +63,10 @@ public class Runner {
 	 * @param blueType AI playing for blue
 	 * @param use_UI true if UI or the text interface should be shown
 	 * @param delay in ms
+	 * @return one entry per played game, owned by the caller
 	 */
-	public static void simulate(int simulations, Placer.Type redPlacement, AI.Type redType, Placer.Type bluePlacement, AI.Type blueType, int delay) {
-		winList.clear();
+	public static ArrayList<WinnerEntry> simulate(int simulations, Placer.Type redPlacement, AI.Type redType, Placer.Type bluePlacement, AI.Type blueType, int delay) {
+		ArrayList<WinnerEntry> winList = new ArrayList<WinnerEntry>();
 		if(simulations > 1) { if(use_UI) { printGame = true; printResults = true; } use_UI = false;}
 		long start = System.currentTimeMillis();
 		while(simulations-- > 0) {
@@ -150,6 +150,7 @@ public class Runner {
 		}
 		long end = System.currentTimeMillis();
 		System.out.println("total time: " + (end - start) + "ms");
+		return winList;
 	}
 
 	public static void showWinner(Mediator mediator, long simTime) {
@@ -187,7 +188,11 @@ public class Runner {
 		}
 	}
 
-	public static void printResults() {
+	/**
+	 * Prints statistics about the games in winList
+	 * @param winList entries returned by {@link #simulate(int, Placer.Type, AI.Type, Placer.Type, AI.Type, int)}
+	 */
+	public static void printResults(List<WinnerEntry> winList) {
 		long time = 0;
 		long moves = 0;
 		long mostMoves = 0;
@@ -9,6 +9,7 @@ import java.io.IOException;
 import java.util.HashMap; // Import HashMap
 import java.util.Map;     // Import Map
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
 
 import core.PieceType;                 // Import für core.PieceType
 import strados2.classic_board_representation.ClassicPiece;
@@ -27,7 +28,7 @@ public class CompressedMapIO {
     /**
      * Saves loaded maps, {@link #loadCompressedMaps()} will always return a clone of the here loaded map to minimize IO time.
      */
-    private static HashMap<String, Map<PieceType, int[][]>> loadedMaps = new HashMap<String, Map<PieceType, int[][]>>();
+    private static ConcurrentHashMap<String, Map<PieceType, int[][]>> loadedMaps = new ConcurrentHashMap<String, Map<PieceType, int[][]>>();
 
     /**
      * Saves an int[][][] Array associated with ClassicPiece Ranks to a file.
@@ -10,6 +10,7 @@ import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import core.PieceType;
 import it.unimi.dsi.fastutil.Pair;
@@ -31,14 +32,14 @@ public class NeighborIO {
 	/**
 	 * Saves loaded neighbor distributions, {@link #loadNeighborCounts(String)} will always return a clone of the here loaded map to minimize IO time.
 	 */
-	private static HashMap<String, Map<PieceType, Map<RelativePosition, Map<PieceType, Double>>>> loadedNeighbors 
-	= new HashMap<String, Map<PieceType, Map<RelativePosition, Map<PieceType, Double>>>>();
+	private static ConcurrentHashMap<String, Map<PieceType, Map<RelativePosition, Map<PieceType, Double>>>> loadedNeighbors 
+	= new ConcurrentHashMap<String, Map<PieceType, Map<RelativePosition, Map<PieceType, Double>>>>();
 	
 	/**
 	 * Saves loaded neighbor distributions, {@link #loadClassicNeighborCounts(String)} will always return a clone of the here loaded map to minimize IO time.
 	 */
-	private static HashMap<String, Map<ClassicPiece.ClassicRank, Map<RelativePosition, Map<ClassicPiece.ClassicRank, Double>>>> loadedClassicNeighbors 
-	= new HashMap<String, Map<ClassicPiece.ClassicRank, Map<RelativePosition, Map<ClassicPiece.ClassicRank, Double>>>>();
+	private static ConcurrentHashMap<String, Map<ClassicPiece.ClassicRank, Map<RelativePosition, Map<ClassicPiece.ClassicRank, Double>>>> loadedClassicNeighbors 
+	= new ConcurrentHashMap<String, Map<ClassicPiece.ClassicRank, Map<RelativePosition, Map<ClassicPiece.ClassicRank, Double>>>>();
 
 
 	/**
@@ -0,0 +1,109 @@
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import core.placing.Placer;
+import core.playing.random.RandomAI;
+
+class BitboardTest {
+
+	@Test
+	void testSquare() {
+		for(int x=0; x<8; x++)
+			for(int y=0; y<8; y++) {
+				byte pos = ByteMapper.toByte(x, y);
+				assertEquals(x * 8 + y, Bitboard.square(pos));
+				assertEquals(pos, Bitboard.toByte(Bitboard.square(pos)));
+				assertEquals(Utils.blockedByLake(x, y), Bitboard.contains(Bitboard.LAKES, Bitboard.square(x, y)));
+			}
+	}
+
+	@Test
+	void testShift() {
+		for(int x=0; x<8; x++)
+			for(int y=0; y<8; y++) {
+				long bit = Bitboard.bit(x, y);
+				for(Direction dir : Direction.values()) {
+					int newX = Move.calcEndX(x, dir, 1);
+					int newY = Move.calcEndY(y, dir, 1);
+					long expected = Utils.outOfBounds(newX) || Utils.outOfBounds(newY) ? 0 : Bitboard.bit(newX, newY);
+					assertEquals(expected, Bitboard.shift(bit, dir.ordinal()));
+				}
+			}
+	}
+
+	@Test
+	void testRays() {
+		for(int x=0; x<8; x++)
+			for(int y=0; y<8; y++)
+				for(Direction dir : Direction.values()) {
+					long expected = 0;
+					for(int fields=1; ; fields++) {
+						int newX = Move.calcEndX(x, dir, fields);
+						int newY = Move.calcEndY(y, dir, fields);
+						if(Utils.outOfBounds(newX) || Utils.outOfBounds(newY) || Utils.blockedByLake(newX, newY))
+							break;
+						expected |= Bitboard.bit(newX, newY);
+						assertEquals(Bitboard.square(newX, newY), Bitboard.step(Bitboard.square(x, y), dir.ordinal(), fields));
+						assertEquals(fields, Bitboard.distanceToFirst(Bitboard.square(x, y), dir.ordinal(), Bitboard.bit(newX, newY)));
+					}
+					assertEquals(expected, Bitboard.ray(Bitboard.square(x, y), dir.ordinal()));
+					assertEquals(Long.bitCount(expected), Bitboard.rayLength(Bitboard.square(x, y), dir.ordinal()));
+				}
+	}
+
+	@Test
+	void testBoardsFollowPlayout() {
+		GameState state = new GameState(
+				Placer.placePiecesWith(true, Placer.Type.RANDOM),
+				Placer.placePiecesWith(false, Placer.Type.RANDOM));
+		for(int i=0; i<300 && !Utils.isGameOver(state); i++) {
+			assertBoardsMatchField(state);
+			assertMovesMatchField(state);
+			Move move = RandomAI.nextMove(state);
+			assertTrue(Utils.isMovePossible(state, move.getPiece(), move.getEndX(), move.getEndY(), move.getDirection(), move.getFields()));
+			Utils.execute(state, move);
+		}
+		assertBoardsMatchField(state);
+	}
+
+	private void assertBoardsMatchField(GameState state) {
+		for(int x=0; x<8; x++)
+			for(int y=0; y<8; y++) {
+				Piece piece = state.inspect(x, y);
+				int square = Bitboard.square(x, y);
+				assertEquals(piece != null && piece.getTeam(), Bitboard.contains(state.getTeamBoard(true), square));
+				assertEquals(piece != null && !piece.getTeam(), Bitboard.contains(state.getTeamBoard(false), square));
+				for(PieceType type : PieceType.values())
+					assertEquals(piece != null && piece.getType() == type, Bitboard.contains(state.getTypeBoard(type), square));
+			}
+	}
+
+	/**
+	 * Compares the Bitboard move generation with a square by square check on {@link GameState#getField()}
+	 */
+	private void assertMovesMatchField(GameState state) {
+		int expected = 0;
+		for(int i=0; i<7; i++) {
+			Piece piece = state.getCurrentPieces()[i];
+			if(piece == null) continue;
+			for(Direction dir : Direction.values())
+				for(int fields=1; fields<=piece.getType().getMoves(); fields++) {
+					int x = Move.calcEndX(piece.getX(), dir, fields);
+					int y = Move.calcEndY(piece.getY(), dir, fields);
+					if(!Utils.isOutOfBoundsOrBlocked(state.getField(), x, y, piece.getTeam())
+							&& Utils.sightLine(state.getField(), piece, fields, dir)
+							&& !Utils.twoSquaresRule(state, piece, x, y)
+							&& !Utils.moreSquaresRule(state, ByteMapper.toByte(x, y)))
+						expected++;
+				}
+		}
+		assertEquals(expected, Utils.getAllPossibleMoves(state).size());
+		if(expected == 0)
+			assertFalse(Utils.anyMovePossible(state));
+	}
+}
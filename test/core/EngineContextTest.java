@@ -0,0 +1,67 @@
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import core.placing.Placer;
+import core.playing.random.RandomAI;
+
+class EngineContextTest {
+
+	@Test
+	void testSeededContextIsReproducible() {
+		GameState start = new GameState(
+				Placer.placePiecesWith(true, Placer.Type.PREBUILT),
+				Placer.placePiecesWith(false, Placer.Type.PREBUILT));
+		EngineContext context = EngineContext.current();
+		assertEquals(playRandomGame(start.clone(), 42), playRandomGame(start.clone(), 42));
+		assertSame(context, EngineContext.current());
+	}
+
+	@Test
+	void testParallelGames() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		ArrayList<Future<Long>> games = new ArrayList<Future<Long>>();
+		for(int i=0; i<8; i++) {
+			long seed = i;
+			games.add(executor.submit(() -> playRandomGame(new GameState(
+					Placer.placePiecesWith(true, Placer.Type.PREBUILT),
+					Placer.placePiecesWith(false, Placer.Type.PREBUILT)), seed)));
+		}
+		for(int i=0; i<8; i++) {
+			long expected = playRandomGame(new GameState(
+					Placer.placePiecesWith(true, Placer.Type.PREBUILT),
+					Placer.placePiecesWith(false, Placer.Type.PREBUILT)), i);
+			long actual = games.get(i).get();
+			assertEquals(expected, actual);
+		}
+		executor.shutdown();
+	}
+
+	/**
+	 * Plays a random game with a seeded {@link EngineContext} on the calling thread, the previous context is restored afterwards
+	 * @return Zobrist key of the final GameState
+	 */
+	private long playRandomGame(GameState state, long seed) {
+		EngineContext previous = EngineContext.current();
+		EngineContext.set(new EngineContext(seed));
+		try {
+			for(int i=0; i<300 && !Utils.isGameOver(state); i++) {
+				Move move = RandomAI.nextMove(state);
+				assertTrue(Utils.isMovePossible(state, move.getPiece(), move.getEndX(), move.getEndY(), move.getDirection(), move.getFields()));
+				Utils.execute(state, move);
+			}
+			return state.getHash();
+		} finally {
+			EngineContext.set(previous);
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+import core.placing.Placer;
+import core.playing.random.RandomAI;
+
+class GameStateCodecTest {
+
+	@Test
+	void testRoundTrip() {
+		ByteBuffer heap = ByteBuffer.allocate(1024);
+		ByteBuffer direct = ByteBuffer.allocateDirect(1024);
+		for(int game=0; game<10; game++) {
+			GameState state = new GameState(
+					Placer.placePiecesWith(true, Placer.Type.RANDOM),
+					Placer.placePiecesWith(false, Placer.Type.RANDOM));
+			for(int i=0; i<300 && !Utils.isGameOver(state); i++) {
+				assertRoundTrip(state, heap);
+				assertRoundTrip(state, direct);
+				Utils.execute(state, RandomAI.nextMove(state));
+			}
+			assertRoundTrip(state, heap);
+		}
+	}
+
+	private void assertRoundTrip(GameState state, ByteBuffer buffer) {
+		buffer.clear();
+		GameStateCodec.encode(state, buffer);
+		assertEquals(GameStateCodec.encodedSize(state), buffer.position());
+		buffer.flip();
+		GameState decoded = GameStateCodec.decode(buffer);
+		assertEquals(0, buffer.remaining());
+
+		assertTrue(state.equals(decoded));
+		assertEquals(state.getHash(), decoded.getHash());
+		assertEquals(state.getChasedFields(), decoded.getChasedFields());
+		for(int team=0; team<2; team++)
+			for(int i=0; i<10; i++)
+				if(state.getPieces()[team][i] != null)
+					assertEquals(state.getPieces()[team][i].getKnown(), decoded.getPieces()[team][i].getKnown());
+	}
+}
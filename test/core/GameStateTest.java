@@ -4,6 +4,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+
 import org.junit.jupiter.api.Test;
 
 import core.placing.Placer;
@@ -130,4 +132,70 @@ class GameStateTest {
 		state2 = state.clone();
 		assertTrue(state.equals(state2));
 	}
+
+	@Test
+	void testMakeUnmake() {
+		for(int game=0; game<20; game++) {
+			GameState state = new GameState(
+					Placer.placePiecesWith(true, Placer.Type.RANDOM),
+					Placer.placePiecesWith(false, Placer.Type.RANDOM));
+			UndoStack undo = new UndoStack(1);
+			ArrayList<GameState> before = new ArrayList<GameState>();
+			ArrayList<Move> made = new ArrayList<Move>();
+			for(int i=0; i<200 && !Utils.isGameOver(state); i++) {
+				Move move = RandomAI.nextMove(state);
+				before.add(state.clone());
+				made.add(move);
+				Utils.make(state, move, undo);
+			}
+			
+			for(int i=made.size()-1; i>=0; i--) {
+				Utils.unmake(state, made.get(i), undo);
+				assertSameState(before.get(i), state);
+			}
+			assertTrue(undo.isEmpty());
+		}
+	}
+	
+	private void assertSameState(GameState expected, GameState state) {
+		assertTrue(expected.equals(state));
+		assertEquals(expected.getChasedFields(), state.getChasedFields());
+		assertEquals(expected.getRepetitionRedFields(), state.getRepetitionRedFields());
+		assertEquals(expected.getRepetitionBlueFields(), state.getRepetitionBlueFields());
+		for(int team=0; team<2; team++)
+			for(int i=0; i<10; i++) {
+				Piece piece = state.getPieces()[team][i];
+				assertEquals(expected.getPieces()[team][i] == null, piece == null);
+				if(piece == null) continue;
+				assertTrue(expected.getPieces()[team][i].equals(piece));
+				assertEquals(expected.getPieces()[team][i].getKnown(), piece.getKnown());
+				assertTrue(state.inspect(piece.getX(), piece.getY()) == piece);
+			}
+		assertEquals(expected.getHash(), state.getHash());
+		assertEquals(expected.getTeamBoard(true), state.getTeamBoard(true));
+		assertEquals(expected.getTeamBoard(false), state.getTeamBoard(false));
+		for(PieceType type : PieceType.values())
+			assertEquals(expected.getTypeBoard(type), state.getTypeBoard(type));
+	}
+
+	@Test
+	void testZobristHash() {
+		GameState state = new GameState(
+				Placer.placePiecesWith(true, Placer.Type.RANDOM),
+				Placer.placePiecesWith(false, Placer.Type.RANDOM));
+		GameState start = state.clone();
+		assertEquals(start.getHash(), state.getHash());
+		assertEquals(start.hashCode(), state.hashCode());
+		assertTrue(start.equals((Object) state));
+
+		for(int i=0; i<300 && !Utils.isGameOver(state); i++) {
+			Utils.execute(state, RandomAI.nextMove(state));
+			assertEquals(state.computeHash(), state.getHash());
+			assertEquals(state.getHash(), state.clone().getHash());
+		}
+		assertFalse(start.equals((Object) state));
+		
+		state.changeTeam();
+		assertEquals(state.computeHash(), state.getHash());
+	}
 }
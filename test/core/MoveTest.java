@@ -63,4 +63,22 @@ class MoveTest {
 		assertEquals(2, move4.getFields());
 	}
 
+	@Test
+	void testPackedMove() {
+		for(boolean team : new boolean[] {true, false})
+			for(Direction dir : Direction.values())
+				for(int fields=1; fields<4; fields++) {
+					Piece piece = new Piece(PieceType.SPAEHER.getByte(), team, ByteMapper.toByte(4, 4));
+					Move move = new Move(piece, dir, fields);
+					int packed = PackedMove.pack(piece, 5, dir, fields);
+					
+					assertEquals(team, PackedMove.getTeam(packed));
+					assertEquals(5, PackedMove.getPieceIndex(packed));
+					assertEquals(dir, PackedMove.getDirection(packed));
+					assertEquals(fields, PackedMove.getFields(packed));
+					assertEquals(move.getStart(), PackedMove.getStart(packed));
+					assertEquals(move.getEnd(), PackedMove.getEnd(packed));
+				}
+	}
+
 }
@@ -12,6 +12,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import core.placing.Placer;
+import core.playing.random.RandomAI;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import ui.UI;
 
 class UtilsTest extends Utils {
@@ -60,6 +62,7 @@ class UtilsTest extends Utils {
 		state.getField()[7][0] = pieces[1][7];
 		pieces[1][3].setPos(6, 1);
 		state.getField()[6][1] = pieces[1][3];
+		state.updateBitboards();
 
 		state.changeTeam();
 		Utils.checkAndExecute(state, new Move(pieces[1][3], Direction.UP, 1));
@@ -69,7 +72,11 @@ class UtilsTest extends Utils {
 		Utils.checkAndExecute(state, new Move(pieces[1][3], Direction.UP, 1));
 		Utils.checkAndExecute(state, new Move(pieces[0][2], Direction.RIGHT, 1));
 		
+		long hash = state.getHash();
+		boolean team = state.getTeam();
 		assertEquals(0, Utils.getWinner(state));
+		assertEquals(hash, state.getHash());
+		assertEquals(team, state.getTeam());
 		
 //		System.out.println(Utils.getWinner(state));
 		
@@ -83,6 +90,18 @@ class UtilsTest extends Utils {
 		assertEquals(26, getAllPossibleMoves(state).size());
 	}
 	
+	@Test
+	void testGenerateMoves() {
+		MoveBuffer moves = new MoveBuffer(1);
+		assertEquals(26, generateMoves(state, moves));
+		ObjectArrayList<Move> objectMoves = getAllPossibleMoves(state);
+		for(int i=0; i<moves.size(); i++) {
+			Move move = PackedMove.toMove(state, moves.get(i));
+			assertTrue(move.equals(objectMoves.get(i)));
+			assertTrue(isMovePossible(state, move.getPiece(), move.getEndX(), move.getEndY(), move.getDirection(), move.getFields()));
+		}
+	}
+	
 	@Test
 	void testTeam() {
 		assertTrue(state.getTeam());
@@ -607,4 +626,33 @@ class UtilsTest extends Utils {
 		Piece[] bluePieces = Placer.placePiecesWith(false, Placer.Type.PREBUILT);
 		state = new GameState(redPieces, bluePieces);
 	}
+
+	@Test
+	void testTerminalChecksMatchMoveGeneration() {
+		for(int game=0; game<20; game++) {
+			GameState state = new GameState(
+					Placer.placePiecesWith(true, Placer.Type.RANDOM),
+					Placer.placePiecesWith(false, Placer.Type.RANDOM));
+			for(int i=0; i<400; i++) {
+				GameState opponent = state.clone();
+				opponent.changeTeam();
+				boolean canMove = getAllPossibleMoves(state).size() > 0;
+				boolean opponentCanMove = getAllPossibleMoves(opponent).size() > 0;
+				assertEquals(canMove, anyMovePossible(state));
+				assertEquals(opponentCanMove, anyMovePossible(state, !state.getTeam()));
+				
+				Piece[] pieces = state.getCurrentPieces();
+				boolean gameOver = flagGoneCheck(pieces) || piecesGoneCheck(pieces) || !canMove;
+				assertEquals(gameOver, isGameOver(state));
+				assertEquals(gameOver, isGameOver(state));
+				if(getWinner(state) == 3)
+					assertFalse(gameOver);
+				if(gameOver) {
+					assertTrue(getWinner(state) != 3);
+					break;
+				}
+				execute(state, RandomAI.nextMove(state));
+			}
+		}
+	}
 }
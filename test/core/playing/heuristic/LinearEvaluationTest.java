@@ -0,0 +1,52 @@
+package core.playing.heuristic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import core.GameState;
+import core.placing.Placer;
+
+class LinearEvaluationTest {
+
+	@Test
+	void testWinProbability() {
+		GameState state = new GameState(
+				Placer.placePiecesWith(true, Placer.Type.PREBUILT),
+				Placer.placePiecesWith(false, Placer.Type.PREBUILT));
+		LinearEvaluation evaluation = new LinearEvaluation();
+		float start = evaluation.winProbability(state);
+		assertEquals(0.5f, start, 0.05f);
+
+		GameState blueLostMarschall = state.clone();
+		blueLostMarschall.removePiece(blueLostMarschall.getBluePieces()[0]);
+		assertTrue(evaluation.winProbability(blueLostMarschall) > start);
+
+		GameState redLostMarschall = state.clone();
+		redLostMarschall.removePiece(redLostMarschall.getRedPieces()[0]);
+		assertTrue(evaluation.winProbability(redLostMarschall) < start);
+
+		GameState blueLostFlag = state.clone();
+		blueLostFlag.removePiece(blueLostFlag.getBluePieces()[9]);
+		assertEquals(1f, evaluation.winProbability(blueLostFlag));
+	}
+
+	@Test
+	void testFeatures() {
+		GameState state = new GameState(
+				Placer.placePiecesWith(true, Placer.Type.PREBUILT),
+				Placer.placePiecesWith(false, Placer.Type.PREBUILT));
+		float[] features = new float[LinearEvaluation.FEATURES];
+		LinearEvaluation.features(state, features);
+		assertEquals(1f, features[0]);
+		assertEquals(1f, features[1]);
+		// both teams use the same setup
+		for(int i=2; i<LinearEvaluation.FEATURES; i++)
+			assertEquals(0f, features[i]);
+
+		state.removePiece(state.getBluePieces()[2]);
+		LinearEvaluation.features(state, features);
+		assertEquals(1f, features[4]);
+	}
+}
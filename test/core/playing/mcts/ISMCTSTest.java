@@ -0,0 +1,66 @@
+package core.playing.mcts;
+
+import static core.playing.mcts.MCTSTestUtils.assertLegal;
+import static core.playing.mcts.MCTSTestUtils.prebuilt;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import core.GameState;
+import core.Move;
+import core.Piece;
+import core.PieceType;
+
+class ISMCTSTest {
+
+	@Test
+	void testSample() {
+		ISMCTS mcts = new ISMCTS(true, prebuilt());
+		for(int i=0; i<20; i++) {
+			GameState world = mcts.guesser.sample(true);
+			for(Piece piece : mcts.gameState.getRedPieces())
+				if(piece != null)
+					assertEquals(piece.getType(), world.inspect(piece.getX(), piece.getY()).getType());
+
+			Map<PieceType, Integer> counts = new EnumMap<PieceType, Integer>(PieceType.class);
+			for(Piece piece : mcts.gameState.getBluePieces()) {
+				if(piece == null)
+					continue;
+				Piece sampled = world.inspect(piece.getX(), piece.getY());
+				assertNotNull(sampled);
+				assertTrue(sampled.getType() != PieceType.UNKNOWN);
+				counts.merge(sampled.getType(), 1, Integer::sum);
+			}
+			for(PieceType type : counts.keySet())
+				assertEquals(type.getPieceCount(), (int) counts.get(type));
+		}
+	}
+
+	@Test
+	void testSearch() {
+		ISMCTS mcts = new ISMCTS(true, prebuilt());
+		long hash = mcts.gameState.getHash();
+		InformationSetNode root = mcts.searchTree(300);
+
+		assertEquals(300, root.getVisits());
+		assertEquals(300, mcts.simulationCounter + mcts.heuristicCounter);
+		assertEquals(hash, mcts.gameState.getHash());
+		int childVisits = 0;
+		for(InformationSetNode child : root.getChildren()) {
+			assertTrue(child.getAvailability() <= root.getVisits());
+			childVisits += child.getVisits();
+		}
+		assertEquals(300, childVisits);
+		// the Moves of the searching team are legal in every determinization, the child added in iteration i is available in all later ones
+		for(int i=0; i<root.getChildren().size(); i++)
+			assertEquals(300 - i, root.getChildren().get(i).getAvailability());
+
+		Move move = mcts.nextMove();
+		assertLegal(mcts, move);
+	}
+}
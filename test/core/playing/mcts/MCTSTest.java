@@ -3,13 +3,29 @@ package core.playing.mcts;
 import java.util.ArrayList;
 import java.util.List;
 
+import static core.playing.mcts.MCTSTestUtils.assertLegal;
+import static core.playing.mcts.MCTSTestUtils.prebuilt;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import org.junit.jupiter.api.Test;
 
 import core.GameState;
+import core.Mediator;
 import core.Move;
+import core.PackedMove;
+import core.PieceType;
 import core.Piece;
 import core.Utils;
 import core.placing.Placer;
+import core.playing.heuristic.LinearEvaluation;
+import core.playing.random.RandomAI;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import ui.UI;
 
 class MCTSTest {
@@ -66,4 +82,302 @@ class MCTSTest {
 //		Utils.sleep(10000);
 	}
 
+	@Test
+	void testSearch() {
+		GameState state = prebuilt();
+		MCTS mcts = new MCTS(true, state);
+		long hash = mcts.gameState.getHash();
+		TreeNode root = mcts.search(200);
+		assertEquals(200, mcts.simulationCounter + mcts.heuristicCounter);
+		assertEquals(200, mcts.expansionCounter);
+		assertEquals(hash, root.getGameState().getHash());
+	}
+
+	@Test
+	void testRootParallel() {
+		MCTS mcts = new MCTS(true, prebuilt());
+		MCTS[] workers = mcts.runWorkers(4, worker -> worker.search(100));
+		assertEquals(400, mcts.simulationCounter + mcts.heuristicCounter);
+
+		Int2IntOpenHashMap visits = MCTS.summedRootVisits(workers);
+		int workerVisits = 0;
+		for(MCTS worker : workers)
+			for(TreeNode child : worker.root.getChildren().values()) {
+				assertTrue(visits.containsKey(child.getPackedMove()));
+				workerVisits += child.getNK();
+			}
+		int summedVisits = 0;
+		for(Int2IntMap.Entry entry : visits.int2IntEntrySet())
+			summedVisits += entry.getIntValue();
+		assertEquals(workerVisits, summedVisits);
+
+		mcts.useRootParallel(4);
+		assertLegal(mcts, mcts.nextMove());
+	}
+
+	@Test
+	void testEnsemble() {
+		GameState state = prebuilt();
+		MCTS mcts = new MCTS(true, state);
+		mcts.useEnsemble(4);
+		long hash = mcts.gameState.getHash();
+		Move move = mcts.nextMove();
+		assertLegal(mcts, move);
+		assertTrue(mcts.simulationCounter + mcts.heuristicCounter > 0);
+		assertEquals(hash, mcts.gameState.getHash());
+	}
+
+	@Test
+	void testLazyMoves() {
+		GameState state = prebuilt();
+		MCTS mcts = new MCTS(true, state);
+		TreeNode root = mcts.search(50);
+		assertTrue(root.hasGeneratedMoves());
+		for(TreeNode child : root.getChildren().values())
+			if(child.getChildren().isEmpty())
+				assertTrue(!child.hasGeneratedMoves());
+		assertEquals(Utils.getAllPossibleMoves(state).size(), root.getChildren().size() + root.getUntriedMoves().size());
+	}
+
+	@Test
+	void testProgressiveWidening() {
+		GameState state = prebuilt();
+		MCTS mcts = new MCTS(true, state);
+		mcts.useProgressiveWidening(1, 0.5f);
+		TreeNode root = mcts.search(100);
+		assertTrue(root.getChildren().size() <= Math.ceil(Math.sqrt(root.getNK())));
+		assertTrue(root.getChildren().size() > 1);
+		for(TreeNode child : root.getChildren().values())
+			assertTrue(TreeNode.prior(state, child.getPackedMove()) >= 1);
+	}
+
+	@Test
+	void testRave() {
+		GameState state = prebuilt();
+		MCTS mcts = new MCTS(true, state);
+		mcts.useRave(Constants.RAVE_EQUIVALENCE);
+		TreeNode root = mcts.search(200);
+		for(TreeNode child : root.getChildren().values()) {
+			// every simulation through child played its Move, the initial 2 visits are no simulations
+			assertTrue(child.getRaveVisits() >= child.getNK() - 2);
+			assertTrue(child.getRaveWins() <= child.getRaveVisits());
+		}
+		Move move = mcts.nextMove();
+		assertLegal(mcts, move);
+	}
+
+	@Test
+	void testEvaluationCutoff() {
+		GameState state = prebuilt();
+		MCTS mcts = new MCTS(true, state);
+		mcts.useEvaluationCutoff(Constants.CUTOFF_STEPS);
+		TreeNode root = mcts.search(200);
+		assertTrue(root.getNK() > 200);
+		// most playouts from the start position get cut off
+		assertTrue(mcts.heuristicCounter > mcts.simulationCounter);
+		Move move = mcts.nextMove();
+		assertLegal(mcts, move);
+	}
+
+	@Test
+	void testFractionalBackup() {
+		GameState state = prebuilt();
+		MCTS mcts = new MCTS(true, state);
+		// no playout Moves, every simulation is decided by the evaluation of the selected GameState
+		mcts.useEvaluationCutoff(0);
+		assertEquals(new LinearEvaluation().winProbability(state), mcts.simulate(state, 0));
+
+		TreeNode root = mcts.search(100);
+		assertEquals(root.getNK(), root.getWinsP1() + root.getWinsP2(), 0.01f);
+		assertTrue(root.getWinsP1() != Math.round(root.getWinsP1()));
+	}
+
+	@Test
+	void testSequentialHalving() {
+		GameState state = prebuilt();
+		MCTS mcts = new MCTS(true, state);
+		mcts.disableTreeReuse();
+		TreeNode best = mcts.sequentialHalving(0, 500);
+		assertEquals(Utils.getAllPossibleMoves(state).size(), mcts.root.getChildren().size());
+		assertSame(mcts.root, best.getParent());
+		assertEquals(500 + 2, mcts.root.getNK());
+		for(TreeNode child : mcts.root.getChildren().values())
+			assertTrue(child.getNK() > 2);
+
+		mcts.useSequentialHalving();
+		mcts.setTimeInMs(100);
+		Move move = mcts.nextMove();
+		assertLegal(mcts, move);
+	}
+
+	@Test
+	void testTreeParallel() {
+		GameState state = prebuilt();
+		MCTS mcts = new MCTS(true, state);
+		mcts.useTreeParallel(4);
+		Move move = mcts.nextMove();
+		assertLegal(mcts, move);
+
+		int childVisits = 0;
+		for(TreeNode child : mcts.root.getChildren().values()) {
+			assertEquals(0, child.getVirtualLoss());
+			childVisits += child.getNK() - 2;
+		}
+		assertEquals(0, mcts.root.getVirtualLoss());
+		assertEquals(mcts.simulationCounter + mcts.heuristicCounter, mcts.root.getNK() - 2);
+		assertEquals(mcts.root.getNK() - 2, childVisits);
+	}
+
+	@Test
+	void testTreeReuse() {
+		GameState state = prebuilt();
+		MCTS mcts = new MCTS(true, state);
+		TreeNode root = mcts.search(2000);
+		TreeNode child = mcts.bestRootChild(root);
+		TreeNode grandchild = child.bestChild();
+
+		GameState start = mcts.gameState;
+		GameState afterReply = start.clone();
+		Utils.execute(afterReply, PackedMove.toMove(afterReply, child.getPackedMove()));
+		Utils.execute(afterReply, PackedMove.toMove(afterReply, grandchild.getPackedMove()));
+		mcts.gameState = afterReply;
+		int visits = grandchild.getNK();
+		TreeNode reused = mcts.freshOrReusedRoot();
+		assertSame(grandchild, reused);
+		assertNull(reused.getParent());
+		assertEquals(visits, reused.getNK());
+
+		GameState afterOneMove = start.clone();
+		Utils.execute(afterOneMove, PackedMove.toMove(afterOneMove, child.getPackedMove()));
+		mcts.root = root;
+		mcts.gameState = afterOneMove;
+		assertNotSame(child, mcts.freshOrReusedRoot());
+		assertEquals(2, mcts.freshOrReusedRoot().getNK());
+	}
+
+	@Test
+	void testPondering() {
+		Mediator mediator = new Mediator(prebuilt());
+		MCTS mcts = new MCTS(true, mediator.obfuscateFor(true));
+		mcts.usePondering();
+		mcts.useTimeManager(20_000, 0);
+
+		assertTrue(mediator.makeMove(mcts.nextMove()));
+		int searched = mcts.simulationCounter + mcts.heuristicCounter;
+		mcts.update(mediator.getAIInformer(true));
+		assertTrue(mcts.isPondering());
+		Utils.sleep(200);
+
+		assertTrue(mediator.makeMove(RandomAI.nextMove(mediator.getGameState())));
+		mcts.update(mediator.getAIInformer(true));
+		assertTrue(!mcts.isPondering());
+		assertTrue(mcts.simulationCounter + mcts.heuristicCounter > searched);
+
+		Move move = mcts.nextMove();
+		assertLegal(mcts, move);
+		assertTrue(mcts.timeManager.getRemaining() < 20_000);
+	}
+
+	@Test
+	void testUnsupportedModes() {
+		GameState state = prebuilt();
+		new MCTS(true, state).usePondering();
+		for(MCTS mcts : new MCTS[] {new PooledMCTS(true, state, 16), new TranspositionMCTS(true, state, 16), new ISMCTS(true, state)}) {
+			assertThrows(UnsupportedOperationException.class, mcts::usePondering);
+			assertThrows(UnsupportedOperationException.class, () -> mcts.useRootParallel(2));
+			assertThrows(UnsupportedOperationException.class, () -> mcts.useTreeParallel(2));
+			assertThrows(UnsupportedOperationException.class, mcts::useSolver);
+			assertThrows(UnsupportedOperationException.class, () -> mcts.useRave(Constants.RAVE_EQUIVALENCE));
+			assertThrows(UnsupportedOperationException.class, mcts::useSequentialHalving);
+			// playout modes work in every search
+			mcts.usePlayoutPolicy(Constants.PLAYOUT_EPSILON);
+			mcts.useTimeManager(20_000, 0);
+		}
+	}
+
+	@Test
+	void testPonderingMiss() {
+		GameState state = prebuilt();
+		MCTS mcts = new MCTS(true, state);
+		// short playouts from the symmetric setup often get a TerminalHeuristic score of 0, which reads the team of the root
+		mcts.maxSteps = 2;
+		mcts.useCommonPlayout = false;
+		mcts.gameState = state;
+		TreeNode searched = mcts.root;
+		// the root has no children, so the prediction misses
+		mcts.startPondering();
+		assertTrue(mcts.isPondering());
+		Utils.sleep(200);
+
+		assertSame(searched, mcts.root);
+		assertTrue(mcts.isPondering());
+		assertTrue(mcts.stopPondering());
+		assertTrue(!mcts.isPondering());
+	}
+
+	@Test
+	void testSolver() {
+		Piece[] redPieces = new Piece[10];
+		Piece[] bluePieces = new Piece[10];
+		redPieces[9] = new Piece(PieceType.FLAGGE, true);
+		redPieces[9].setPos(0, 7);
+		redPieces[1] = new Piece(PieceType.MARSCHALL, true);
+		redPieces[1].setPos(1, 0);
+		bluePieces[9] = new Piece(PieceType.FLAGGE, false);
+		bluePieces[9].setPos(0, 0);
+		bluePieces[1] = new Piece(PieceType.MARSCHALL, false);
+		bluePieces[1].setPos(7, 7);
+		MCTS mcts = new MCTS(true, prebuilt());
+		// the Guesser needs full teams, the endgame is searched directly
+		mcts.gameState = new GameState(redPieces, bluePieces);
+		mcts.useSolver();
+
+		TreeNode root = mcts.search(100);
+		assertTrue(root.isProven());
+		TreeNode win = mcts.solvedRootChild(mcts.bestRootChild(root));
+		assertEquals(TreeNode.PROVEN_WIN, win.getProof());
+		assertTrue(win.provenRedWins());
+		assertEquals(0, win.getMoveThatLedToThisNode().getEndX());
+		assertEquals(0, win.getMoveThatLedToThisNode().getEndY());
+
+		Move move = mcts.nextMove();
+		assertEquals(0, move.getEndX());
+		assertEquals(0, move.getEndY());
+	}
+
+	@Test
+	void testSolverRave() {
+		Piece[] redPieces = new Piece[10];
+		Piece[] bluePieces = new Piece[10];
+		redPieces[9] = new Piece(PieceType.FLAGGE, true);
+		redPieces[9].setPos(0, 7);
+		redPieces[1] = new Piece(PieceType.MARSCHALL, true);
+		redPieces[1].setPos(1, 0);
+		bluePieces[9] = new Piece(PieceType.FLAGGE, false);
+		bluePieces[9].setPos(0, 0);
+		bluePieces[1] = new Piece(PieceType.MARSCHALL, false);
+		bluePieces[1].setPos(7, 7);
+		MCTS mcts = new MCTS(true, prebuilt());
+		mcts.gameState = new GameState(redPieces, bluePieces);
+		mcts.useSolver();
+		mcts.useRave(Constants.RAVE_EQUIVALENCE);
+		mcts.useCommonPlayout = false;
+
+		TreeNode root = mcts.search(100);
+		TreeNode win = mcts.solvedRootChild(mcts.bestRootChild(root));
+		assertEquals(TreeNode.PROVEN_WIN, win.getProof());
+		for(int i=0; i<20; i++) {
+			// a playout from the root plays the Move of a root child first
+			mcts.simulate(root.getGameState(), 0);
+			int[] raveVisits = root.getChildren().values().stream().mapToInt(TreeNode::getRaveVisits).toArray();
+			// the proven child is not played out, its siblings get no RAVE update
+			mcts.backpropagate(win, mcts.simulate(win, 0));
+			int j = 0;
+			for(TreeNode child : root.getChildren().values())
+				if(child != win)
+					assertEquals(raveVisits[j++], child.getRaveVisits());
+				else
+					j++;
+		}
+	}
 }
@@ -0,0 +1,35 @@
+package core.playing.mcts;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import core.GameState;
+import core.Move;
+import core.Utils;
+import core.placing.Placer;
+import core.playing.AI;
+
+/**
+ * Fixture and assertions shared by the search tests
+ */
+final class MCTSTestUtils {
+
+	private MCTSTestUtils() {
+	}
+
+	/**
+	 * @return start position with the PREBUILT setup for both teams
+	 */
+	static GameState prebuilt() {
+		return new GameState(
+				Placer.placePiecesWith(true, Placer.Type.PREBUILT),
+				Placer.placePiecesWith(false, Placer.Type.PREBUILT));
+	}
+
+	/**
+	 * Asserts that move can be played in the GameState of ai
+	 */
+	static void assertLegal(AI ai, Move move) {
+		assertTrue(Utils.isMovePossible(ai.gameState, ai.gameState.inspect(move.getStartX(), move.getStartY()),
+				move.getEndX(), move.getEndY(), move.getDirection(), move.getFields()));
+	}
+}
@@ -0,0 +1,61 @@
+package core.playing.mcts;
+
+import static core.playing.mcts.MCTSTestUtils.assertLegal;
+import static core.playing.mcts.MCTSTestUtils.prebuilt;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import core.GameState;
+import core.Move;
+import core.Utils;
+
+class PlayoutPolicyTest {
+
+	@Test
+	void testReplies() {
+		GameState state = prebuilt();
+		PlayoutPolicy policy = new PlayoutPolicy(0);
+		Move first = policy.pick(state, null);
+		Utils.execute(state, first);
+		Move reply = policy.pick(state, first);
+		int replyFields = (reply.getStartX() << 3 | reply.getStartY()) << 6 | reply.getEndX() << 3 | reply.getEndY();
+		boolean red = first.getPiece().getTeam();
+
+		// blue replied and won
+		policy.record(reply);
+		policy.record(first);
+		policy.update(!red);
+		assertEquals(replyFields, policy.getReply(red, first.getStartX(), first.getStartY(), first.getEndX(), first.getEndY()));
+		assertEquals(1, policy.getVisits(!red, reply.getPiece().getType().getByte(),
+				reply.getStartX(), reply.getStartY(), reply.getEndX(), reply.getEndY()));
+		// the last good reply gets played again
+		for(int i=0; i<10; i++) {
+			Move picked = policy.pick(state, first);
+			assertEquals(reply.getStartX(), picked.getStartX());
+			assertEquals(reply.getStartY(), picked.getStartY());
+			assertEquals(reply.getEndX(), picked.getEndX());
+			assertEquals(reply.getEndY(), picked.getEndY());
+		}
+
+		// the reply lost and gets forgotten
+		policy.record(reply);
+		policy.record(first);
+		policy.update(red);
+		assertEquals(-1, policy.getReply(red, first.getStartX(), first.getStartY(), first.getEndX(), first.getEndY()));
+		assertEquals(2, policy.getVisits(!red, reply.getPiece().getType().getByte(),
+				reply.getStartX(), reply.getStartY(), reply.getEndX(), reply.getEndY()));
+	}
+
+	@Test
+	void testSearch() {
+		GameState state = prebuilt();
+		MCTS mcts = new MCTS(true, state);
+		mcts.usePlayoutPolicy(Constants.PLAYOUT_EPSILON);
+		TreeNode root = mcts.search(200);
+		assertTrue(root.getNK() > 200);
+		Move move = mcts.nextMove();
+		assertLegal(mcts, move);
+	}
+}
@@ -0,0 +1,82 @@
+package core.playing.mcts;
+
+import static core.playing.mcts.MCTSTestUtils.assertLegal;
+import static core.playing.mcts.MCTSTestUtils.prebuilt;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import core.GameState;
+import core.Move;
+import core.playing.heuristic.TerminalHeuristic;
+
+class PooledMCTSTest {
+
+	@Test
+	void testSearchPool() {
+		PooledMCTS mcts = new PooledMCTS(true, prebuilt());
+		long hash = mcts.gameState.getHash();
+		NodePool pool = mcts.searchPool(500);
+
+		assertEquals(500, pool.getVisits(NodePool.ROOT));
+		int childVisits = 0;
+		int first = pool.getFirstChild(NodePool.ROOT);
+		for(int child=first; child<first+pool.getExpandedCount(NodePool.ROOT); child++) {
+			assertEquals(NodePool.ROOT, pool.getParent(child));
+			childVisits += pool.getVisits(child);
+		}
+		assertEquals(500, childVisits);
+		assertEquals(500, mcts.expansionCounter);
+		assertEquals(hash, mcts.gameState.getHash());
+
+		pool.reset();
+		assertEquals(1, pool.size());
+		assertEquals(NodePool.NOT_EXPANDED, pool.getChildCount(NodePool.ROOT));
+	}
+
+	@Test
+	void testFullPool() {
+		PooledMCTS mcts = new PooledMCTS(true, prebuilt(), 100);
+		NodePool pool = mcts.searchPool(300);
+		assertTrue(pool.size() <= pool.capacity());
+		assertEquals(300, pool.getVisits(NodePool.ROOT));
+
+		Move move = mcts.nextMove();
+		assertLegal(mcts, move);
+	}
+
+	@Test
+	void testTimeManager() {
+		PooledMCTS mcts = new PooledMCTS(true, prebuilt());
+		mcts.useTimeManager(20_000, 0);
+		Move move = mcts.nextMove();
+		assertLegal(mcts, move);
+		// the search shares the clock handling of MCTS.nextMove
+		assertTrue(mcts.simulationCounter + mcts.heuristicCounter > 0);
+		assertTrue(mcts.timeManager.getRemaining() < 20_000);
+	}
+
+	@Test
+	void testTieResult() {
+		PooledMCTS mcts = new PooledMCTS(true, prebuilt());
+		// every simulation is an unfinished tie, it counts as win for the team not on turn at the root
+		mcts.maxSteps = 0;
+		mcts.terminalHeuristic = new TerminalHeuristic() {
+			@Override
+			public int evaluate(GameState state) {
+				return 0;
+			}
+		};
+		NodePool pool = mcts.searchPool(300);
+		for(int node=1; node<pool.size(); node++) {
+			if(pool.getVisits(node) == 0)
+				continue;
+			int depth = 0;
+			for(int parent=node; parent!=NodePool.ROOT; parent=pool.getParent(parent))
+				depth++;
+			// red made the Moves into odd depths, blue wins every simulation
+			assertEquals(depth % 2 == 1 ? 0 : pool.getVisits(node), pool.getWins(node));
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package core.playing.mcts;
+
+import static core.playing.mcts.MCTSTestUtils.prebuilt;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import core.GameState;
+
+class TimeManagerTest {
+
+	@Test
+	void testBudget() {
+		GameState state = prebuilt();
+		TimeManager manager = new TimeManager(60_000, 1_000);
+		assertEquals(0, manager.budget(state, 1));
+		long budget = manager.budget(state, TimeManager.AVERAGE_MOVES);
+		assertTrue(budget > 1_000);
+		assertTrue(manager.budget(state, 4 * TimeManager.AVERAGE_MOVES) > budget);
+		assertTrue(manager.budget(state, 2) < budget);
+
+		GameState endgame = state.clone();
+		for(int i=0; i<8; i++) {
+			endgame.removePiece(endgame.getRedPieces()[i]);
+			endgame.removePiece(endgame.getBluePieces()[i]);
+		}
+		assertTrue(manager.budget(endgame, TimeManager.AVERAGE_MOVES) > budget);
+		assertTrue(manager.budget(endgame, 100) <= manager.getRemaining() / 4);
+	}
+
+	@Test
+	void testStop() {
+		GameState state = prebuilt();
+		TimeManager manager = new TimeManager(60_000, 0);
+		long end = manager.startMove(state, TimeManager.AVERAGE_MOVES, 0);
+		int budget = (int) manager.getBudget();
+		assertEquals(budget, end);
+
+		// too early to stop, even with a large lead
+		assertFalse(manager.shouldStop(1, 100, 0, 100, 1));
+		// the lead can not be overtaken at 1 iteration per ms
+		assertTrue(manager.shouldStop(1, budget, 0, budget / 2, budget / 2));
+		assertFalse(manager.shouldStop(1, 10, 9, budget / 2, budget / 2));
+		// the best child just changed, extend
+		assertFalse(manager.shouldStop(2, 10, 9, budget, budget));
+		assertTrue(manager.shouldStop(2, 10, 9, 2 * budget, 2 * budget));
+		assertTrue(manager.shouldStop(3, 10, 9, budget, manager.getHardLimit()));
+
+		manager.endMove(budget);
+		assertEquals(60_000 - budget, manager.getRemaining());
+	}
+}
@@ -0,0 +1,84 @@
+package core.playing.mcts;
+
+import static core.playing.mcts.MCTSTestUtils.assertLegal;
+import static core.playing.mcts.MCTSTestUtils.prebuilt;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import core.GameState;
+import core.Move;
+import core.MoveBuffer;
+import core.PackedMove;
+import core.UndoStack;
+import core.Utils;
+import core.playing.heuristic.TerminalHeuristic;
+
+class TranspositionMCTSTest {
+
+	@Test
+	void testTable() {
+		TranspositionTable table = new TranspositionTable(16);
+		assertEquals(16, table.capacity());
+		assertEquals(-1, table.find(42));
+		int index = table.findOrInsert(42);
+		table.update(index, true);
+		table.update(table.findOrInsert(42), false);
+		assertEquals(index, table.find(42));
+		assertEquals(2, table.getVisits(index));
+		assertEquals(1, table.getRedWins(index));
+		assertNotEquals(-1, table.findOrInsert(0));
+
+		for(long key=1; key<=100; key++)
+			table.update(table.findOrInsert(key << 4), false);
+		assertTrue(table.size() <= table.capacity());
+		assertTrue(table.getReplaced() > 0);
+	}
+
+	@Test
+	void testSearch() {
+		TranspositionMCTS mcts = new TranspositionMCTS(true, prebuilt());
+		long hash = mcts.gameState.getHash();
+		TranspositionTable table = mcts.searchTable(300);
+
+		assertEquals(300, table.getVisits(table.find(hash)));
+		assertEquals(300, mcts.simulationCounter + mcts.heuristicCounter);
+		assertEquals(hash, mcts.gameState.getHash());
+
+		Move move = mcts.nextMove();
+		assertLegal(mcts, move);
+	}
+
+	@Test
+	void testTieResult() {
+		TranspositionMCTS mcts = new TranspositionMCTS(true, prebuilt());
+		// descends one Move, every simulation is an unfinished tie, it counts as win for the team not on turn at the root
+		mcts.maxSteps = 1;
+		mcts.terminalHeuristic = new TerminalHeuristic() {
+			@Override
+			public int evaluate(GameState state) {
+				return 0;
+			}
+		};
+		TranspositionTable table = mcts.searchTable(300);
+		GameState state = mcts.gameState.clone();
+		MoveBuffer moves = new MoveBuffer();
+		UndoStack undo = new UndoStack();
+		Utils.generateMoves(state, moves);
+		int visited = 0;
+		for(int i=0; i<moves.size(); i++) {
+			Move move = PackedMove.toMove(state, moves.get(i));
+			Utils.make(state, move, undo);
+			int index = table.find(state.getHash());
+			Utils.unmake(state, move, undo);
+			if(index >= 0 && table.getVisits(index) > 0) {
+				// red made the Move, blue wins every simulation
+				visited++;
+				assertEquals(0, table.getRedWins(index));
+			}
+		}
+		assertTrue(visited > 0);
+	}
+}
@@ -0,0 +1,28 @@
+package executable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import core.GameState;
+
+class PerftTest {
+
+	@Test
+	void testReferenceCounts() {
+		GameState[] positions = Perft.positions();
+		for(int i=0; i<positions.length; i++)
+			for(int depth=1; depth<=3; depth++)
+				assertEquals(Perft.REFERENCE_COUNTS[i][depth-1], Perft.perft(positions[i].clone(), depth), "position " + i + " depth " + depth);
+	}
+
+	@Test
+	void testMakeUnmakeMatchesClone() {
+		for(GameState position : Perft.positions()) {
+			long hash = position.getHash();
+			for(int depth=1; depth<=3; depth++)
+				assertEquals(Perft.perft(position.clone(), depth), Perft.perftMake(position, depth));
+			assertEquals(hash, position.getHash());
+		}
+	}
+}